@@ -0,0 +1,101 @@
+package com.lti.knowledge.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Short lived read-through cache for the PCM access tokens fetched from aws/vault.
+ * Tokens are held AES-GCM encrypted with a key that only lives in this process.
+ */
+@Service
+public class AccessTokenCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(AccessTokenCache.class);
+
+	private static final String CIPHER = "AES/GCM/NoPadding";
+	private static final int GCM_IV_LENGTH = 12;
+	private static final int GCM_TAG_LENGTH_BITS = 128;
+	private static final int EXPIRED_SWEEP_THRESHOLD = 1024;
+
+	@Value("${secret.cache.ttl-seconds:60}")
+	private long ttlSeconds;
+
+	private final SecureRandom secureRandom = new SecureRandom();
+	private final SecretKey secretKey;
+
+	// pcmId -> encrypted access token
+	private final Map<Integer, EncryptedAccessToken> cache = new ConcurrentHashMap<>();
+
+	public AccessTokenCache() throws GeneralSecurityException {
+		KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
+		keyGenerator.init(256);
+		secretKey = keyGenerator.generateKey();
+	}
+
+	/**
+	 * @return cached access token or null if it is missing/expired
+	 */
+	public String get(int pcmId) {
+		EncryptedAccessToken encrypted = cache.get(pcmId);
+		if (encrypted == null)
+			return null;
+
+		if (System.nanoTime() - encrypted.expiresAtNanos() >= 0) {
+			cache.remove(pcmId, encrypted);
+			return null;
+		}
+
+		try {
+			Cipher cipher = Cipher.getInstance(CIPHER);
+			cipher.init(Cipher.DECRYPT_MODE, secretKey, new GCMParameterSpec(GCM_TAG_LENGTH_BITS, encrypted.iv()));
+			return new String(cipher.doFinal(encrypted.cipherText()), StandardCharsets.UTF_8);
+		} catch (GeneralSecurityException e) {
+			logger.error("Failed to read cached access token of PCM: {}", pcmId, e);
+			cache.remove(pcmId);
+			return null;
+		}
+	}
+
+	public void put(int pcmId, String accessToken) {
+		if (accessToken == null || ttlSeconds <= 0)
+			return;
+
+		try {
+			byte[] iv = new byte[GCM_IV_LENGTH];
+			secureRandom.nextBytes(iv);
+
+			Cipher cipher = Cipher.getInstance(CIPHER);
+			cipher.init(Cipher.ENCRYPT_MODE, secretKey, new GCMParameterSpec(GCM_TAG_LENGTH_BITS, iv));
+			byte[] cipherText = cipher.doFinal(accessToken.getBytes(StandardCharsets.UTF_8));
+
+			long now = System.nanoTime();
+			if (cache.size() >= EXPIRED_SWEEP_THRESHOLD) {
+				cache.values().removeIf(cached -> now - cached.expiresAtNanos() >= 0);
+			}
+			cache.put(pcmId, new EncryptedAccessToken(iv, cipherText, now + TimeUnit.SECONDS.toNanos(ttlSeconds)));
+		} catch (GeneralSecurityException e) {
+			// caching is best effort
+			logger.error("Failed to cache access token of PCM: {}", pcmId, e);
+		}
+	}
+
+	public void invalidate(int pcmId) {
+		cache.remove(pcmId);
+	}
+}
+
+record EncryptedAccessToken(byte[] iv, byte[] cipherText, long expiresAtNanos) {}
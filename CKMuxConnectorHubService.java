@@ -2,9 +2,14 @@ package com.lti.knowledge.service;
 
 import java.util.List;
 
+import com.lti.knowledge.to.ConnectorHubCatalogTO;
 import com.lti.knowledge.to.ConnectorHubTO;
 
 public interface CKMuxConnectorHubService {
 	List<ConnectorHubTO> getConnectors();
 
+	ConnectorHubCatalogTO getConnectorCatalog();
+
+	void invalidateConnectors();
+
 }
\ No newline at end of file
@@ -1,35 +1,101 @@
 package com.lti.knowledge.service.impl;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.persistence.EntityManager;
 
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import com.lti.knowledge.dao.ConnectorHubDAO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.lti.knowledge.entities.ConnectorHubEntity;
 import com.lti.knowledge.entities.ToolMasterEntity;
 import com.lti.knowledge.service.CKMuxConnectorHubService;
+import com.lti.knowledge.to.ConnectorHubCatalogTO;
 import com.lti.knowledge.to.ConnectorHubTO;
 
 import ch.qos.logback.classic.Logger;
 
+/**
+ * Connector hub catalog, served from an immutable in-memory snapshot.
+ *
+ * <li>Connectors are loaded with their tool and tool category in a single query
+ * <li>The snapshot carries an ETag of its content, a client holding it can skip the download
+ * <li>The snapshot is rebuilt after {@link #invalidateConnectors()} (master data reloaded) or once its TTL expires
+ * (connectors added by another instance), a snapshot loaded while it was invalidated is not cached
+ * <li>Callers get copies of the connectors, the snapshot itself is never handed out
+ */
 @Service
 public class CKMuxConnectorHubServiceImpl implements CKMuxConnectorHubService {
 
 	private static final Logger logger = (Logger) LoggerFactory.getLogger(CKMuxConnectorHubServiceImpl.class);
 
+	private static final String CONNECTOR_HUB_QUERY = "select c from ConnectorHubEntity c"
+		+ " join fetch c.toolMasterEntity t join fetch t.toolCategoryEntity";
+
+	@Autowired
+	private EntityManager entityManager;
+
 	@Autowired
-	private ConnectorHubDAO connectorHubDao;
+	private ObjectMapper objectMapper;
+
+	@Value("${connector.hub.cache.ttl-seconds:300}")
+	private long connectorCacheTtlSeconds;
+
+	private volatile CachedConnectorHubCatalog cachedCatalog = null;
+
+	// bumped on every invalidation, a load started before it doesn't replace the cache
+	private final AtomicLong generation = new AtomicLong();
 
 	@Override
 	public List<ConnectorHubTO> getConnectors() {
-		List<ConnectorHubTO> connectorHubTOList = new ArrayList<>();
+		return copyOf(cachedConnectorCatalog().connectors());
+	}
+
+	@Override
+	public ConnectorHubCatalogTO getConnectorCatalog() {
+		ConnectorHubCatalogTO catalog = cachedConnectorCatalog();
+		return new ConnectorHubCatalogTO(catalog.eTag(), copyOf(catalog.connectors()));
+	}
+
+	@Override
+	public void invalidateConnectors() {
+		generation.incrementAndGet();
+		cachedCatalog = null;
+	}
+
+	private ConnectorHubCatalogTO cachedConnectorCatalog() {
+		CachedConnectorHubCatalog cached = cachedCatalog;
+		if (cached != null && System.nanoTime() - cached.expiresAtNanos() < 0) {
+			return cached.catalog();
+		}
+		return loadConnectorCatalog();
+	}
+
+	private synchronized ConnectorHubCatalogTO loadConnectorCatalog() {
+		long now = System.nanoTime();
+		CachedConnectorHubCatalog cached = cachedCatalog;
+		if (cached != null && now - cached.expiresAtNanos() < 0) {
+			return cached.catalog();
+		}
 
-		Iterable<ConnectorHubEntity> connectorHubEntityIterable = connectorHubDao.findAll();
-		connectorHubEntityIterable.forEach(connectorHubEntity -> {
+		long loadedGeneration = generation.get();
+
+		List<ConnectorHubEntity> connectorHubEntityList =
+			entityManager.createQuery(CONNECTOR_HUB_QUERY, ConnectorHubEntity.class).getResultList();
+
+		List<ConnectorHubTO> connectorHubTOList = new ArrayList<>(connectorHubEntityList.size());
+		connectorHubEntityList.forEach(connectorHubEntity -> {
 			ConnectorHubTO connectorHubTO = new ConnectorHubTO();
 			BeanUtils.copyProperties(connectorHubEntity, connectorHubTO);
 
@@ -41,6 +107,44 @@ public class CKMuxConnectorHubServiceImpl implements CKMuxConnectorHubService {
 
 			connectorHubTOList.add(connectorHubTO);
 		});
-		return connectorHubTOList;
+
+		ConnectorHubCatalogTO catalog = new ConnectorHubCatalogTO(eTag(connectorHubTOList), List.copyOf(connectorHubTOList));
+		CachedConnectorHubCatalog loaded =
+			new CachedConnectorHubCatalog(catalog, now + TimeUnit.SECONDS.toNanos(connectorCacheTtlSeconds));
+		// invalidated while loading, the catalog may predate the change, served once but not cached
+		if (generation.get() == loadedGeneration) {
+			cachedCatalog = loaded;
+			if (generation.get() != loadedGeneration)
+				cachedCatalog = null;
+		}
+
+		logger.debug("Loaded connector hub catalog: {} connectors, ETag {}", connectorHubTOList.size(), catalog.eTag());
+		return catalog;
+	}
+
+	private List<ConnectorHubTO> copyOf(List<ConnectorHubTO> connectorHubTOList) {
+		List<ConnectorHubTO> copies = new ArrayList<>(connectorHubTOList.size());
+		for (ConnectorHubTO connectorHubTO : connectorHubTOList) {
+			ConnectorHubTO copy = new ConnectorHubTO();
+			BeanUtils.copyProperties(connectorHubTO, copy);
+			copies.add(copy);
+		}
+		return copies;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Strong ETag, hash of the catalog as it is served
+	 */
+	private String eTag(List<ConnectorHubTO> connectorHubTOList) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(connectorHubTOList));
+			return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+		} catch (JsonProcessingException | NoSuchAlgorithmException e) {
+			// catalog is still served, without conditional requests
+			logger.error("Failed to compute the connector hub ETag", e);
+			return null;
+		}
+	}
+}
+
+record CachedConnectorHubCatalog(ConnectorHubCatalogTO catalog, long expiresAtNanos) {}
\ No newline at end of file
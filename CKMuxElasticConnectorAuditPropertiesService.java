@@ -0,0 +1,44 @@
+package com.lti.knowledge.service;
+
+import java.util.List;
+
+import org.springframework.lang.NonNull;
+
+import com.lti.common.exception.CustomException;
+import com.lti.common.to.ElasticSyncDetailsTO;
+import com.lti.knowledge.to.ElasticConnectorAuditPropertiesTO;
+
+import reactor.core.publisher.Flux;
+
+public interface CKMuxElasticConnectorAuditPropertiesService {
+
+	ElasticConnectorAuditPropertiesTO fetchAuditPropertiesByProjectId(Integer projectId);
+
+	List<Integer> fetchProjectIdsWithRunningStatus();
+
+	ElasticConnectorAuditPropertiesTO saveOrUpdateAuditProperties(ElasticConnectorAuditPropertiesTO auditPropertiesToSave)
+		throws CustomException;
+
+	List<ElasticSyncDetailsTO> getElasticSyncDetails();
+
+	List<ElasticSyncDetailsTO> checkElasticSyncStatus(List<Integer> projectIds);
+
+	@NonNull
+	Flux<ElasticSyncDetailsTO> subscribeElasticSyncStatus(List<Integer> projectIds);
+
+	boolean deleteAuditProperties(Integer projectId) throws CustomException;
+
+	void updateSyncDetails(Integer projectId, String lastSyncDate, String syncStatus, String syncMsg)
+		throws CustomException;
+
+	void updateUiDetails(Integer projectId, boolean uiTraceFlag, String uiTraceId, String username, String serviceName,
+		String startTime, String stopTime, String clientIp);
+
+	void updateFlag(String traceType, Integer projectId, boolean flag) throws CustomException;
+
+	void updateSearchAfterTime(String traceType, Integer projectId, String searchAfterTime, String traceIds)
+		throws CustomException;
+
+	void updateParallelTracingFlag(Integer projectId, boolean tracingFlag) throws CustomException;
+
+}
\ No newline at end of file
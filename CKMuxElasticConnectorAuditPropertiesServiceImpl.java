@@ -1,13 +1,19 @@
 package com.lti.knowledge.service.impl;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.http.HttpEntity;
@@ -25,6 +31,7 @@ import com.lti.common.constants.PathConstants;
 import com.lti.common.exception.CustomException;
 import com.lti.common.exception.Exceptions;
 import com.lti.common.to.ElasticSyncDetailsTO;
+import com.lti.knowledge.config.IoExecutionConfig;
 import com.lti.knowledge.dao.ElasticConnectorAuditPropertiesDao;
 import com.lti.knowledge.entities.ElasticConnectorAuditPropertiesEntity;
 import com.lti.knowledge.service.CKMuxElasticConnectorAuditPropertiesService;
@@ -32,6 +39,9 @@ import com.lti.knowledge.to.ElasticConnectorAuditPropertiesTO;
 import com.lti.knowledge.util.StoryUtils;
 
 import io.micrometer.core.lang.NonNull;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
 @Service
 public class CKMuxElasticConnectorAuditPropertiesServiceImpl implements CKMuxElasticConnectorAuditPropertiesService {
@@ -49,9 +59,21 @@ public class CKMuxElasticConnectorAuditPropertiesServiceImpl implements CKMuxEla
 	@Autowired
 	private RestTemplate wso2RestTemplate;
 
+	@Autowired
+	private WSO2TokenProvider wso2TokenProvider;
+
+	@Autowired
+	private SyncStatusEventBus syncStatusEventBus;
+
+	@Autowired
+	private IoExecutionConfig ioExecutionConfig;
+
 	@Autowired
 	private ObjectMapper objectMapper;
 
+	@Value("${sync.status.subscription.timeout-seconds:3600}")
+	private long syncStatusSubscriptionTimeoutSeconds;
+
 	@Override
 	public ElasticConnectorAuditPropertiesTO fetchAuditPropertiesByProjectId(Integer projectId) {
 		ElasticConnectorAuditPropertiesTO auditPropertiesTO = null;
@@ -105,17 +127,17 @@ public class CKMuxElasticConnectorAuditPropertiesServiceImpl implements CKMuxEla
 			auditPropertiesEntity.setParallelTracing(parallelTracing);
 			auditPropertiesEntity = elasticDao.save(auditPropertiesEntity);
 
-			String authUrl = wso2Config.url() + PathConstants.AUTHENTICATION;
-			String token = StoryUtils.generateToken(authUrl, wso2RestTemplate, wso2Config.basicAuth(),
-					wso2Config.apiKey());
 			String uri = wso2Config.url() + PathConstants.SAVE_UPDATE_ELASTIC_AUDIT_PROPERTIES;
-			HttpHeaders headers = new HttpHeaders();
-			headers.add(CommonConstants.WSO2_ACCESS_TOKEN, token);
-			headers.add(CommonConstants.API_KEY, wso2Config.apiKey());
-			headers.setContentType(MediaType.APPLICATION_JSON);
-			HttpEntity<Object> entity = new HttpEntity<>(objectMapper.writeValueAsString(auditPropertiesToSave),
-					headers);
-			StoryUtils.executePostRequest(wso2RestTemplate, uri, entity);
+			String wso2Body = objectMapper.writeValueAsString(auditPropertiesToSave);
+			wso2TokenProvider.execute(token -> {
+				HttpHeaders headers = new HttpHeaders();
+				headers.add(CommonConstants.WSO2_ACCESS_TOKEN, token);
+				headers.add(CommonConstants.API_KEY, wso2Config.apiKey());
+				headers.setContentType(MediaType.APPLICATION_JSON);
+				HttpEntity<Object> entity = new HttpEntity<>(wso2Body, headers);
+				StoryUtils.executePostRequest(wso2RestTemplate, uri, entity);
+				return null;
+			});
 		} catch (Exception e) {
 			throw new CustomException(Exceptions.ERROR050, e);
 		}
@@ -145,6 +167,14 @@ public class CKMuxElasticConnectorAuditPropertiesServiceImpl implements CKMuxEla
 	@NonNull
 	@Override
 	public List<ElasticSyncDetailsTO> checkElasticSyncStatus(List<Integer> projectIds) {
+		return checkElasticSyncStatus(projectIds, new HashSet<>());
+	}
+
+	/**
+	 * @param existingProjectIds filled with the received projectIds that have audit properties
+	 */
+	private List<ElasticSyncDetailsTO> checkElasticSyncStatus(List<Integer> projectIds,
+		Set<Integer> existingProjectIds) {
 		List<ElasticSyncDetailsTO> result = new ArrayList<>();
 
 		if (CollectionUtils.isEmpty(projectIds)) {
@@ -156,6 +186,7 @@ public class CKMuxElasticConnectorAuditPropertiesServiceImpl implements CKMuxEla
 		// And return the lastSyncDate
 		List<ElasticConnectorAuditPropertiesEntity> auditPropertiesEntityList = elasticDao.findAllById(projectIds);
 		for (ElasticConnectorAuditPropertiesEntity auditPropertiesEntity : auditPropertiesEntityList) {
+			existingProjectIds.add(auditPropertiesEntity.getProjectId());
 			// Sync status is not RUNNING -> Sync completed / failed
 			if (!CommonConstants.SYNC_RUNNING.equals(auditPropertiesEntity.getSyncStatus())) {
 				ElasticSyncDetailsTO syncDetails = new ElasticSyncDetailsTO();
@@ -170,21 +201,64 @@ public class CKMuxElasticConnectorAuditPropertiesServiceImpl implements CKMuxEla
 		return result;
 	}
 
+	/**
+	 * Push based alternative of {@link #checkElasticSyncStatus}, meant to be served as Server-Sent Events.
+	 * Emits the result of {@link #checkElasticSyncStatus} followed by every sync status update of the projects.
+	 * Completes once the sync of every project is no longer RUNNING, projects without audit properties
+	 * are not waited for, or after sync.status.subscription.timeout-seconds
+	 */
+	@Override
+	@NonNull
+	public Flux<ElasticSyncDetailsTO> subscribeElasticSyncStatus(List<Integer> projectIds) {
+		if (CollectionUtils.isEmpty(projectIds)) {
+			return Flux.empty();
+		}
+
+		Set<Integer> runningProjectIds = ConcurrentHashMap.newKeySet();
+		runningProjectIds.addAll(projectIds);
+
+		// signalled if nothing is left to wait for once the current state is read
+		Sinks.One<Boolean> settled = Sinks.one();
+
+		// subscribe to the live events before reading the current state, so no update is missed in between
+		return Flux.merge(
+			syncStatusEventBus.elasticSyncEvents(projectIds),
+			Mono.fromCallable(() -> {
+				Set<Integer> existingProjectIds = new HashSet<>();
+				List<ElasticSyncDetailsTO> updates = checkElasticSyncStatus(projectIds, existingProjectIds);
+				// projects without audit properties never report an update
+				runningProjectIds.retainAll(existingProjectIds);
+				if (updates.isEmpty() && runningProjectIds.isEmpty())
+					settled.tryEmitValue(true);
+				return updates;
+			})
+				.subscribeOn(ioExecutionConfig.blockingScheduler())
+				.flatMapIterable(Function.identity())
+		)
+			.takeUntil(syncDetails -> {
+				if (!CommonConstants.SYNC_RUNNING.equals(syncDetails.getSyncStatus()))
+					runningProjectIds.remove(syncDetails.getProjectId());
+				return runningProjectIds.isEmpty();
+			})
+			.takeUntilOther(settled.asMono())
+			.take(Duration.ofSeconds(syncStatusSubscriptionTimeoutSeconds));
+	}
+
 	@Override
 	public boolean deleteAuditProperties(Integer projectId) throws CustomException {
 		try {
 			elasticDao.deleteById(projectId);
-			String authUrl = wso2Config.url() + PathConstants.AUTHENTICATION;
-			String token = StoryUtils.generateToken(authUrl, wso2RestTemplate, wso2Config.basicAuth(),
-					wso2Config.apiKey());
 			String uri = wso2Config.url()
 					+ PathConstants.DELETE_AUDIT_PROPERTIES.replace("{projectId}", String.valueOf(projectId));
-			HttpHeaders headers = new HttpHeaders();
-			headers.add(CommonConstants.WSO2_ACCESS_TOKEN, token);
-			headers.add(CommonConstants.API_KEY, wso2Config.apiKey());
-			headers.setContentType(MediaType.APPLICATION_JSON);
-			HttpEntity<Object> entity = new HttpEntity<>(headers);
-			StoryUtils.executePostRequest(wso2RestTemplate, uri, entity);
+			wso2TokenProvider.execute(token -> {
+				HttpHeaders headers = new HttpHeaders();
+				headers.add(CommonConstants.WSO2_ACCESS_TOKEN, token);
+				headers.add(CommonConstants.API_KEY, wso2Config.apiKey());
+				headers.setContentType(MediaType.APPLICATION_JSON);
+				HttpEntity<Object> entity = new HttpEntity<>(headers);
+				StoryUtils.executePostRequest(wso2RestTemplate, uri, entity);
+				return null;
+			});
 			return true;
 		} catch (EmptyResultDataAccessException e) {
 			logger.error("Audit properties does not exists for project id: {}", projectId, e);
@@ -202,22 +276,30 @@ public class CKMuxElasticConnectorAuditPropertiesServiceImpl implements CKMuxEla
 			throws CustomException {
 		try {
 			elasticDao.updateSyncDetails(projectId, lastSyncDate, syncStatus, syncMsg);
+
+			ElasticSyncDetailsTO syncDetails = new ElasticSyncDetailsTO();
+			syncDetails.setProjectId(projectId);
+			syncDetails.setSyncStatus(syncStatus);
+			syncDetails.setSyncMsg(syncMsg);
+			syncDetails.setLastSyncDate(lastSyncDate);
+			syncStatusEventBus.publish(syncDetails);
+
 			ElasticConnectorAuditPropertiesTO auditPropertiesToSave = new ElasticConnectorAuditPropertiesTO();
 			auditPropertiesToSave.setProjectId(projectId);
 			auditPropertiesToSave.setLastSyncDate(lastSyncDate);
 			auditPropertiesToSave.setSyncStatus(syncStatus);
 			auditPropertiesToSave.setSyncMsg(syncMsg);
-			String authUrl = wso2Config.url() + PathConstants.AUTHENTICATION;
-			String token = StoryUtils.generateToken(authUrl, wso2RestTemplate, wso2Config.basicAuth(),
-					wso2Config.apiKey());
 			String uri = wso2Config.url() + PathConstants.UPDATE_ELASTIC_SYNC_DETAILS;
-			HttpHeaders headers = new HttpHeaders();
-			headers.add(CommonConstants.WSO2_ACCESS_TOKEN, token);
-			headers.add(CommonConstants.API_KEY, wso2Config.apiKey());
-			headers.setContentType(MediaType.APPLICATION_JSON);
-			HttpEntity<Object> entity = new HttpEntity<>(objectMapper.writeValueAsString(auditPropertiesToSave),
-					headers);
-			StoryUtils.executePostRequest(wso2RestTemplate, uri, entity);
+			String wso2Body = objectMapper.writeValueAsString(auditPropertiesToSave);
+			wso2TokenProvider.execute(token -> {
+				HttpHeaders headers = new HttpHeaders();
+				headers.add(CommonConstants.WSO2_ACCESS_TOKEN, token);
+				headers.add(CommonConstants.API_KEY, wso2Config.apiKey());
+				headers.setContentType(MediaType.APPLICATION_JSON);
+				HttpEntity<Object> entity = new HttpEntity<>(wso2Body, headers);
+				StoryUtils.executePostRequest(wso2RestTemplate, uri, entity);
+				return null;
+			});
 		} catch (CustomException e) {
 			throw e;
 		} catch (Exception e) {
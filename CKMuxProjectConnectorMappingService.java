@@ -12,6 +12,9 @@ import com.lti.common.to.ResponseTO;
 import com.lti.common.to.SyncDetailsTO;
 import com.lti.knowledge.entities.ConnectorHubEntity;
 import com.lti.knowledge.entities.ProjectConnectorMappingEntity;
+import com.lti.knowledge.to.ConnectorSyncEventTO;
+
+import reactor.core.publisher.Flux;
 
 public interface CKMuxProjectConnectorMappingService {
 
@@ -49,9 +52,20 @@ public interface CKMuxProjectConnectorMappingService {
 	CompletableFuture<SyncDetailsTO> syncSdlcHistoryData(ProjectConnectorMappingEntity pcmEntity,
 		boolean resumeInterruptedSync);
 
+	ProjectSync syncProjectConnectors(int projectId) throws CustomException;
+
+	/**
+	 * @param events     completion of each Connector's sync, as it happens
+	 * @param completion completes once every Connector of the Project is synced/failed
+	 */
+	record ProjectSync(Flux<ConnectorSyncEventTO> events, CompletableFuture<List<ConnectorSyncEventTO>> completion) {}
+
 	@NonNull
 	List<SyncDetailsTO> checkPCMSyncStatus(List<SyncDetailsTO> pcmIds);
 
+	@NonNull
+	Flux<SyncDetailsTO> subscribePCMSyncStatus(List<SyncDetailsTO> pcmSyncRunningList);
+
 	String updateLastSyncDateById(Integer projectConnectorId, String sycnStatus, String syncMsg) throws CustomException;
 
 	String updateResyncFieldById(Integer projectConnectorId, String reSycnField);
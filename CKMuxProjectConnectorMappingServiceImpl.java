@@ -4,16 +4,24 @@ import static com.lti.common.constants.CommonConstants.SyncStatus.RUNNING;
 import static com.lti.common.constants.CommonConstants.Tool.*;
 import static com.lti.common.constants.CommonConstants.ToolCategory.VCS;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -30,9 +38,10 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
@@ -40,6 +49,8 @@ import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -60,6 +71,7 @@ import com.lti.common.to.ToolConfigDetailsTO;
 import com.lti.common.utils.CustomValidators;
 import com.lti.common.utils.RestTemplateUtil;
 import com.lti.common.utils.WebClientUtil;
+import com.lti.knowledge.config.IoExecutionConfig;
 import com.lti.knowledge.dao.ConnectorHubDAO;
 import com.lti.knowledge.dao.ProjectConnectorMappingDAO;
 import com.lti.knowledge.entities.ConnectorHubEntity;
@@ -67,10 +79,14 @@ import com.lti.knowledge.entities.ExcelFileDetailEntity;
 import com.lti.knowledge.entities.ProjectConnectorMappingEntity;
 import com.lti.knowledge.service.CKMuxProjectConnectorMappingService;
 import com.lti.knowledge.service.SecretsService;
+import com.lti.knowledge.to.ConnectorSyncEventTO;
 import com.lti.knowledge.to.SecretsTO;
 import com.lti.knowledge.util.StoryUtils;
 
 import ch.qos.logback.classic.Logger;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
 @Service
 public class CKMuxProjectConnectorMappingServiceImpl implements CKMuxProjectConnectorMappingService {
@@ -84,6 +100,9 @@ public class CKMuxProjectConnectorMappingServiceImpl implements CKMuxProjectConn
 	@Autowired
 	private SecretsService secretService;
 
+	@Autowired
+	private AccessTokenCache accessTokenCache;
+
 	@Autowired
 	private ConnectorHubDAO connectorHubDao;
 
@@ -99,6 +118,21 @@ public class CKMuxProjectConnectorMappingServiceImpl implements CKMuxProjectConn
 	@Autowired
 	private RestTemplate wso2RestTemplate;
 
+	@Autowired
+	private WSO2TokenProvider wso2TokenProvider;
+
+	@Autowired
+	private CKProjectConnectorOutbox ckProjectConnectorOutbox;
+
+	@Autowired
+	private ConnectorSyncScheduler connectorSyncScheduler;
+
+	@Autowired
+	private IoExecutionConfig ioExecutionConfig;
+
+	@Autowired
+	private SyncStatusEventBus syncStatusEventBus;
+
 	@Autowired
 	private WebClient.Builder internalWebClient;
 
@@ -114,6 +148,32 @@ public class CKMuxProjectConnectorMappingServiceImpl implements CKMuxProjectConn
 	@Value("${secret.store.flag}")
 	private String secretFlag;
 
+	@Value("${secret.store.bulk-fetch-parallelism:8}")
+	private int secretFetchParallelism;
+
+	@Value("${sync.status.subscription.timeout-seconds:3600}")
+	private long syncStatusSubscriptionTimeoutSeconds;
+
+	@Value("${connector.sync.project-parallelism:8}")
+	private int projectSyncParallelism;
+
+	@Value("${wso2.project.cache.ttl-seconds:300}")
+	private long projectCacheTtlSeconds;
+
+	@Value("${wso2.project.cache.max-size:1000}")
+	private int projectCacheMaxSize;
+
+	@Value("${wso2.project.fetch-parallelism:8}")
+	private int projectFetchParallelism;
+
+	// projectId -> ProjectTO fetched from WSO2
+	private final Map<Integer, CachedProject> projectCache = new ConcurrentHashMap<>();
+
+	private static final ParameterizedTypeReference<ResponseTO<SyncDetailsTO>> LATEST_SYNC_RESPONSE_TYPE =
+		new ParameterizedTypeReference<>() {};
+	private static final ParameterizedTypeReference<ResponseTO<Void>> HISTORY_SYNC_RESPONSE_TYPE =
+		new ParameterizedTypeReference<>() {};
+
 	public static String MSG_001 = "Failed to fetch Projects";
 	public static String PROJECT = "{projectId}";
 
@@ -150,8 +210,12 @@ public class CKMuxProjectConnectorMappingServiceImpl implements CKMuxProjectConn
 
 				CustomValidators.fileFolderName(fileDetail.getFileName(), "Excel file name");
 
-				// Sheet names are comma separated
-				for (String sheetName : fileDetail.getSheets().split(",\\s*")) {
+				List<String> sheetNames = ExcelFileUploadServiceImpl.splitSheetNames(fileDetail.getSheets());
+				if (sheetNames.isEmpty()) {
+					throw new CustomException(HttpStatus.BAD_REQUEST,
+						"No Excel sheet is selected for the file: " + fileDetail.getFileName());
+				}
+				for (String sheetName : sheetNames) {
 					CustomValidators.minmaxLength(sheetName, "Excel sheet: " + sheetName, 1, 31);
 					CustomValidators.excelSheetName(sheetName);
 				}
@@ -432,6 +496,10 @@ public class CKMuxProjectConnectorMappingServiceImpl implements CKMuxProjectConn
 
 		if (pcmTo.getToolName().equals(CommonConstants.Tool.EXCEL.label)) {
 			excelFileUploadService.verifyExcelFileDetailsForSave(pcmTo, pcmEntityToSave);
+			// new PCM is validated with the field mapping submitted with it, over the default mapping of the tool
+			excelFileUploadService.validateExcelFileContent(pcmTo.getExcelFiles(),
+				fieldMappingService.getSubmittedFieldMappingDetails(connectorHubEntity, pcmTo.getFieldDetailsList(),
+					true));
 		}
 
 		int nextPcmId = fetchNextPcmId();
@@ -471,22 +539,24 @@ public class CKMuxProjectConnectorMappingServiceImpl implements CKMuxProjectConn
 			SecretsTO secretsInput = new SecretsTO(pcmTo.getClientId(),pcmTo.getAccessToken(),pcmTo.getClientSecret(),pcmTo.getProjectConnectorId());
 			// wil call aws/vault saveSecret method, if secret.store.flag=aws/vault
 			secretService.saveSecret(secretsInput, secretId);
+			accessTokenCache.invalidate(nextPcmId);
 
 			ProjectConnectorMappingTO wso2Input = new ProjectConnectorMappingTO();
 			wso2Input.setProjectConnectorId(nextPcmId);
 			wso2Input.setConnectorId(pcmEntityToSave.getConnectorId());
 			wso2Input.setProjectId(pcmEntityToSave.getProjectId());
 
-			String authUrl = wso2Config.url() + PathConstants.AUTHENTICATION;
-			String token = StoryUtils.generateToken(authUrl, wso2RestTemplate, wso2Config.basicAuth(),
-				wso2Config.apiKey());
 			String uri = wso2Config.url() + PathConstants.SAVE_PROJECT_CONNECTOR;
-			HttpHeaders headers = new HttpHeaders();
-			headers.add(CommonConstants.WSO2_ACCESS_TOKEN, token);
-			headers.add(CommonConstants.API_KEY, wso2Config.apiKey());
-			headers.setContentType(MediaType.APPLICATION_JSON);
-			HttpEntity<Object> entity = new HttpEntity<>(objectMapper.writeValueAsString(wso2Input), headers);
-			StoryUtils.executePostRequest(wso2RestTemplate, uri, entity);
+			String wso2Body = objectMapper.writeValueAsString(wso2Input);
+			wso2TokenProvider.execute(token -> {
+				HttpHeaders headers = new HttpHeaders();
+				headers.add(CommonConstants.WSO2_ACCESS_TOKEN, token);
+				headers.add(CommonConstants.API_KEY, wso2Config.apiKey());
+				headers.setContentType(MediaType.APPLICATION_JSON);
+				HttpEntity<Object> entity = new HttpEntity<>(wso2Body, headers);
+				StoryUtils.executePostRequest(wso2RestTemplate, uri, entity);
+				return null;
+			});
 
 			if (pcmTo.getToolName().equals(CommonConstants.Tool.EXCEL.label)) {
 				// move file from temp to final storage
@@ -513,13 +583,51 @@ public class CKMuxProjectConnectorMappingServiceImpl implements CKMuxProjectConn
 	public void setAccessToken(ProjectConnectorMappingTO pcmTo,String toolName) throws CustomException {
 
 		// if accessToken is not stored in postgres, set the accesstoken 
-		if (!secretFlag.equalsIgnoreCase(CommonConstants.POSTGRES) && ObjectUtils.isEmpty(pcmTo.getAccessToken()) 
-				&& (!toolName.equals(EXCEL.label))) {
+		if (isAccessTokenInSecretStore(pcmTo, toolName)) {
 			// fetch the access token from aws/vault
-			String accessToken = secretService.fetchAccessToken(pcmTo.getProjectConnectorId(), secretId);
+			String accessToken = accessTokenCache.get(pcmTo.getProjectConnectorId());
+			if (accessToken == null) {
+				accessToken = secretService.fetchAccessToken(pcmTo.getProjectConnectorId(), secretId);
+				accessTokenCache.put(pcmTo.getProjectConnectorId(), accessToken);
+			}
 			pcmTo.setAccessToken(accessToken);
 		}
 	}
+
+	/**
+	 * Bulk variant of {@link #setAccessToken}, tokens missing in the cache are fetched from aws/vault in one go
+	 */
+	public void setAccessTokens(List<ProjectConnectorMappingTO> pcmToList) throws CustomException {
+		Map<Integer, List<ProjectConnectorMappingTO>> pcmToFetchMap = new HashMap<>();
+
+		for (ProjectConnectorMappingTO pcmTo : pcmToList) {
+			if (!isAccessTokenInSecretStore(pcmTo, pcmTo.getToolName()))
+				continue;
+
+			String accessToken = accessTokenCache.get(pcmTo.getProjectConnectorId());
+			if (accessToken != null) {
+				pcmTo.setAccessToken(accessToken);
+			} else {
+				pcmToFetchMap.computeIfAbsent(pcmTo.getProjectConnectorId(), k -> new ArrayList<>()).add(pcmTo);
+			}
+		}
+
+		if (pcmToFetchMap.isEmpty())
+			return;
+
+		Map<Integer, String> accessTokenMap = secretService.fetchAccessTokens(pcmToFetchMap.keySet(), secretId,
+			ioExecutionConfig.blockingScheduler(), secretFetchParallelism);
+		for (Map.Entry<Integer, List<ProjectConnectorMappingTO>> entry : pcmToFetchMap.entrySet()) {
+			String accessToken = accessTokenMap.get(entry.getKey());
+			accessTokenCache.put(entry.getKey(), accessToken);
+			entry.getValue().forEach(pcmTo -> pcmTo.setAccessToken(accessToken));
+		}
+	}
+
+	private boolean isAccessTokenInSecretStore(ProjectConnectorMappingTO pcmTo, String toolName) {
+		return !secretFlag.equalsIgnoreCase(CommonConstants.POSTGRES) && ObjectUtils.isEmpty(pcmTo.getAccessToken())
+			&& (!toolName.equals(EXCEL.label));
+	}
 	@Override
 	public ProjectConnectorMappingTO getProjectConnector(int projectConnectorId) throws CustomException {
 
@@ -550,15 +658,18 @@ public class CKMuxProjectConnectorMappingServiceImpl implements CKMuxProjectConn
 	@Override
 	public List<ProjectConnectorMappingTO> getProjectConnectors(Boolean returnSensitive) throws CustomException {
 		List<ProjectConnectorMappingTO> pcmTOList = new ArrayList<>();
+		// only an explicit false redacts, null keeps the token of postgres and the secret store as before
+		boolean sensitive = !Boolean.FALSE.equals(returnSensitive);
 
 		List<ProjectConnectorMappingEntity> pcmEntityIterable = pcmDao.findAllPCMWithAssociations();
 
 		for (ProjectConnectorMappingEntity pcmEntity : pcmEntityIterable) {
 			ProjectConnectorMappingTO pcmTO = new ProjectConnectorMappingTO();
-			BeanUtils.copyProperties(pcmEntity, pcmTO);
-
-			// if accessToken is not stored in postgres, set the accessToken 
-			setAccessToken(pcmTO,pcmEntity.getConnectorHubEntity().getToolMasterEntity().getToolName());
+			if (sensitive) {
+				BeanUtils.copyProperties(pcmEntity, pcmTO);
+			} else {
+				BeanUtils.copyProperties(pcmEntity, pcmTO, "accessToken");
+			}
 
 			ConnectorHubEntity connectorHubentity = pcmEntity.getConnectorHubEntity();
 			pcmTO.setConnectorName(connectorHubentity.getConnectorName());
@@ -584,6 +695,12 @@ public class CKMuxProjectConnectorMappingServiceImpl implements CKMuxProjectConn
 			pcmTOList.add(pcmTO);
 		}
 
+		// access token is resolved unless the caller explicitly declined the sensitive details
+		// if accessToken is not stored in postgres, set the accessToken
+		if (sensitive) {
+			setAccessTokens(pcmTOList);
+		}
+
 		return pcmTOList;
 
 	}
@@ -601,6 +718,10 @@ public class CKMuxProjectConnectorMappingServiceImpl implements CKMuxProjectConn
 
 		Pair<Set<String>, Set<String>> filesToSaveAndRemoveTuple =
 			excelFileUploadService.verifyExcelFileDetailsForUpdate(pcmTo, pcmEntity);
+		if (filesToSaveAndRemoveTuple != null) {
+			excelFileUploadService.validateExcelFileContent(pcmTo.getExcelFiles(),
+				fieldMappingService.getFieldMappingDetails(pcmEntity, true));
+		}
 
 		List<ProjectConnectorMappingEntity> pcmValidationList = null;
 		try {
@@ -655,6 +776,7 @@ public class CKMuxProjectConnectorMappingServiceImpl implements CKMuxProjectConn
 			SecretsTO secretsInput = new SecretsTO(pcmTo.getClientId(),pcmTo.getAccessToken(),pcmTo.getClientSecret(),pcmTo.getProjectConnectorId());
 			// wil call aws/vault saveSecret method, if secret.store.flag=aws/vault
 			secretService.updateSecret(secretsInput, secretId);
+			accessTokenCache.invalidate(pcmTo.getProjectConnectorId());
 
 			updateProjectConnectorInCK(pcmTo);
 
@@ -689,7 +811,18 @@ public class CKMuxProjectConnectorMappingServiceImpl implements CKMuxProjectConn
 
 	void updateProjectConnectorInCK(ProjectConnectorMappingTO pcmTo) throws CustomException {
 		logger.info("WSO2 - Updating ProjectConnectorMapping:{} In CK", pcmTo.getProjectConnectorId());
+		ckProjectConnectorOutbox.send(toCKUpdate(pcmTo));
+	}
+
+	/**
+	 * Sync transitions are shipped to CK through the outbox, coalesced per PCM
+	 */
+	void enqueueProjectConnectorUpdateInCK(ProjectConnectorMappingTO pcmTo) {
+		logger.debug("WSO2 - Queueing ProjectConnectorMapping:{} update for CK", pcmTo.getProjectConnectorId());
+		ckProjectConnectorOutbox.enqueue(toCKUpdate(pcmTo));
+	}
 
+	private ProjectConnectorMappingTO toCKUpdate(ProjectConnectorMappingTO pcmTo) {
 		ProjectConnectorMappingTO wso2Input = new ProjectConnectorMappingTO();
 		wso2Input.setProjectConnectorId(pcmTo.getProjectConnectorId());
 		wso2Input.setConnectorId(pcmTo.getConnectorId());
@@ -710,19 +843,7 @@ public class CKMuxProjectConnectorMappingServiceImpl implements CKMuxProjectConn
 			&& pcmTo.getSyncStatus().equals(CommonConstants.SYNC_RUNNING)) {
 			wso2Input.setFieldDetailsList(pcmTo.getFieldDetailsList());
 		}
-
-		String authUrl = wso2Config.url() + PathConstants.AUTHENTICATION;
-		String token = StoryUtils.generateToken(authUrl, wso2RestTemplate, wso2Config.basicAuth(), wso2Config.apiKey());
-
-		HttpHeaders headers = new HttpHeaders();
-		headers.add("AccessToken", token);
-		headers.add("apikey", wso2Config.apiKey());
-		headers.setContentType(MediaType.APPLICATION_JSON);
-		HttpEntity<Object> entity = new HttpEntity<>(wso2Input, headers);
-
-		String uri = wso2Config.url() + PathConstants.UPDATE_PROJECT_CONNECTOR.replace("{projectConnectorId}",
-				String.valueOf(wso2Input.getProjectConnectorId()));
-		StoryUtils.executePutMethod(wso2RestTemplate, uri, entity);
+		return wso2Input;
 	}
 
 	@Override
@@ -732,20 +853,29 @@ public class CKMuxProjectConnectorMappingServiceImpl implements CKMuxProjectConn
 			ProjectConnectorMappingEntity pcmEntity = findByPCMIdWithAssociations(projectConnectorId);
 			pcmDao.deleteById(projectConnectorId);
 
-			String authUrl = wso2Config.url() + PathConstants.AUTHENTICATION;
-			String token = StoryUtils.generateToken(authUrl, wso2RestTemplate, wso2Config.basicAuth(),
-				wso2Config.apiKey());
-			HttpHeaders headers = new HttpHeaders();
-			headers.add("AccessToken", token);
-			headers.add("apikey", wso2Config.apiKey());
-			headers.setContentType(MediaType.APPLICATION_JSON);
-			HttpEntity<Object> entity = new HttpEntity<>(headers);
 			String uri = wso2Config.url() + PathConstants.DELETE_PROJECT_CONNECTOR.replace("{projectConnectorId}",
 				String.valueOf(projectConnectorId));
-			StoryUtils.executeDeleteMethod(wso2RestTemplate, uri, entity);
+			wso2TokenProvider.execute(token -> {
+				HttpHeaders headers = new HttpHeaders();
+				headers.add("AccessToken", token);
+				headers.add("apikey", wso2Config.apiKey());
+				headers.setContentType(MediaType.APPLICATION_JSON);
+				HttpEntity<Object> entity = new HttpEntity<>(headers);
+				StoryUtils.executeDeleteMethod(wso2RestTemplate, uri, entity);
+				return null;
+			});
 
 			// will delete the secret present in aws/vault
 			secretService.deleteSecret(projectConnectorId, secretId);
+			accessTokenCache.invalidate(projectConnectorId);
+			fieldMappingService.invalidateFieldMapping(projectConnectorId);
+			// a coalesced sync update must not reach CK after the delete
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					ckProjectConnectorOutbox.discard(projectConnectorId);
+				}
+			});
 
 			if (CommonConstants.Tool.EXCEL.label.equals(pcmEntity.getConnectorHubEntity().getToolMasterEntity().getToolName())) {
 				excelFileUploadService.deleteExcelFileFromFinalStorage(
@@ -842,8 +972,41 @@ public class CKMuxProjectConnectorMappingServiceImpl implements CKMuxProjectConn
 		return pcmDao.findAllPCMBySyncStatusWithAssociations(CommonConstants.SYNC_RUNNING);
 	}
 
+	/**
+	 * Latest Sync of all the Connectors of the Project which are not already RUNNING.
+	 * Connectors are synced in parallel (bounded by connector.sync.project-parallelism and the per Tool limits),
+	 * so the Project sync takes as long as the slowest Connector.
+	 */
+	@Override
+	public ProjectSync syncProjectConnectors(int projectId) throws CustomException {
+		List<ProjectConnectorMappingEntity> pcmListToSync = getPCMListToSync(projectId);
+		setSyncStatusAsRunning(pcmListToSync, projectId);
+
+		Flux<ConnectorSyncEventTO> events = Flux.fromIterable(pcmListToSync)
+			.flatMap(pcmEntity -> Mono.defer(() -> Mono.fromFuture(syncSdlcData(pcmEntity, true)))
+					.map(response -> {
+						SyncDetailsTO syncDetails = response.getData();
+						return new ConnectorSyncEventTO(projectId, pcmEntity.getProjectConnectorId(),
+							syncDetails.getSyncStatus(), syncDetails.getSyncMsg(), syncDetails.getLastSyncDate());
+					})
+					.onErrorResume(e -> Mono.just(new ConnectorSyncEventTO(projectId, pcmEntity.getProjectConnectorId(),
+						CommonConstants.SYNC_FAILED, unwrap(e).getMessage(), null))),
+				Math.max(1, projectSyncParallelism))
+			.doOnNext(event -> logger.info("Project {} Connector {} Latest Sync {}", projectId,
+				event.projectConnectorId(), event.syncStatus()))
+			.cache();
+
+		return new ProjectSync(events, events.collectList().toFuture());
+	}
+
+	private static Throwable unwrap(Throwable e) {
+		return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+	}
+
+	/**
+	 * Queues the Latest Sync of the PCM on the {@link ConnectorSyncScheduler}
+	 */
 	@Override
-	@Async("connectorSyncTaskExecutor")
 	public CompletableFuture<ResponseTO<SyncDetailsTO>> syncSdlcData(ProjectConnectorMappingEntity pcmEntity,
 		boolean resumeInterruptedSync) {
 
@@ -851,147 +1014,113 @@ public class CKMuxProjectConnectorMappingServiceImpl implements CKMuxProjectConn
 			return CompletableFuture.failedFuture(new CustomException(Exceptions.SYNC_ALREADY_RUNNING));
 		}
 
+		CommonConstants.Tool tool = resolveSyncTool(pcmEntity);
+		if (tool == null) {
+			return CompletableFuture.failedFuture(
+				new CustomException(HttpStatus.BAD_REQUEST, "Provided Tool is not supported for Sync"));
+		}
+
+		return connectorSyncScheduler.submit(tool, pcmEntity.getProjectConnectorId(),
+			ConnectorSyncScheduler.SyncType.LATEST, () -> executeSyncSdlcData(pcmEntity, tool));
+	}
+
+	CommonConstants.Tool resolveSyncTool(ProjectConnectorMappingEntity pcmEntity) {
+		try {
+			return CommonConstants.Tool.resolve(pcmEntity.getConnectorHubEntity().getToolMasterEntity().getToolName());
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Performs the Latest Sync without holding a thread while the Tool service syncs,
+	 * blocking steps (secret store, config verification, DB/WSO2 updates) run on the I/O blocking scheduler
+	 */
+	CompletableFuture<ResponseTO<SyncDetailsTO>> executeSyncSdlcData(ProjectConnectorMappingEntity pcmEntity,
+		CommonConstants.Tool tool) {
+
 		int projectConnectorId = pcmEntity.getProjectConnectorId();
 		String toolName = pcmEntity.getConnectorHubEntity().getToolMasterEntity().getToolName();
 
+		SyncEndpoint syncEndpoint = switch (tool) {
+			case ADO -> new SyncEndpoint("ADO", PathConstants.ADO_DUMP.formatted(projectConnectorId),
+				Exceptions.ERROR507, "ADO Sync Failed", ExceptionMessages.ERROR_MSG003, ExceptionMessages.ERROR_MSG004);
+			case JIRA -> new SyncEndpoint("Jira", PathConstants.JIRA_DUMP.formatted(projectConnectorId),
+				Exceptions.ERROR508, "Jira Sync Failed", ExceptionMessages.ERROR_MSG005, ExceptionMessages.ERROR_MSG006);
+			case GITLAB -> new SyncEndpoint("Gitlab", PathConstants.GITLAB_DUMP.formatted(projectConnectorId),
+				Exceptions.ERROR509, "Gitlab Sync Failed", ExceptionMessages.ERROR_MSG007, ExceptionMessages.ERROR_MSG008);
+			case EXCEL -> new SyncEndpoint("Excel", PathConstants.EXCEL_DUMP.formatted(projectConnectorId),
+				Exceptions.ERROR523, "Excel Sync Failed", ExceptionMessages.ERROR_MSG018, ExceptionMessages.ERROR_MSG019);
+			case AZURE_GIT -> new SyncEndpoint("AzureGit", PathConstants.AZUREGIT_DUMP.formatted(projectConnectorId),
+				Exceptions.ERROR524, "AzureGit Sync Failed", ExceptionMessages.ERROR_MSG020, ExceptionMessages.ERROR_MSG021);
+			case RALLY -> new SyncEndpoint("Rally", PathConstants.RALLY_DUMP.formatted(projectConnectorId),
+				Exceptions.ERROR528, "Rally Sync Failed", ExceptionMessages.ERROR_MSG022, ExceptionMessages.ERROR_MSG023);
+			case RTC -> new SyncEndpoint("RTC", PathConstants.RTC_DUMP.formatted(projectConnectorId),
+				Exceptions.ERROR530, "RTC Sync Failed", ExceptionMessages.ERROR_MSG024, ExceptionMessages.ERROR_MSG025);
+			default -> null;
+		};
+		if (syncEndpoint == null) {
+			return CompletableFuture.failedFuture(
+				new CustomException(HttpStatus.BAD_REQUEST, "Provided Tool is not supported for Sync"));
+		}
+
 		ProjectConnectorMappingTO pcmTO = new ProjectConnectorMappingTO();
 		BeanUtils.copyProperties(pcmEntity, pcmTO);
 		pcmTO.setToolName(toolName);
 
-		// will fetch the accessToken present in aws/vault
-		try {
-			setAccessToken(pcmTO,pcmTO.getToolName());
-		} catch (CustomException customException) {
-			return CompletableFuture.failedFuture(customException);
-		}
-		
-		try {
-			verifyConfigDetailsWithToolServices(pcmTO);
-		} catch (CustomException customException) {
-			try {
-				updateLastSyncDateById(projectConnectorId, CommonConstants.SYNC_FAILED, customException.getMessage());
-			} catch (CustomException ce) {
-				// do nothing, return the original exception
-				logger.error("Failed to Update Last Sync Date : ", ce.getMessage());
-
-			}
-			return CompletableFuture.failedFuture(customException);
-		}
+		Mono<Boolean> verifyConfigDetails = Mono.fromCallable(() -> {
+			// will fetch the accessToken present in aws/vault
+			setAccessToken(pcmTO, pcmTO.getToolName());
 
-		try {
-			logger.info("Connector {} Latest Sync Started", projectConnectorId);
-
-			ResponseEntity<ResponseTO<SyncDetailsTO>> responseEntity = null;
-
-			switch (CommonConstants.Tool.resolve(toolName)) {
-				case ADO -> {
-					logger.info("Performing Connector Latest Sync REST call - ADO");
-
-					responseEntity = WebClientUtil.executeInternalPostMethod(
-						internalWebClient,
-						PathConstants.ADO_DUMP.formatted(projectConnectorId),
-						new ParameterizedTypeReference<SyncDetailsTO>() {},
-						Exceptions.ERROR507,
-						"ADO Sync Failed",
-						ExceptionMessages.ERROR_MSG003,
-						ExceptionMessages.ERROR_MSG004);
-				}
-				case JIRA -> {
-					logger.info("Performing Connector Latest Sync REST call - Jira");
-
-					responseEntity = WebClientUtil.executeInternalPostMethod(
-						internalWebClient,
-						PathConstants.JIRA_DUMP.formatted(projectConnectorId),
-						new ParameterizedTypeReference<SyncDetailsTO>() {},
-						Exceptions.ERROR508,
-						"Jira Sync Failed",
-						ExceptionMessages.ERROR_MSG005,
-						ExceptionMessages.ERROR_MSG006);
-				}
-				case GITLAB -> {
-					logger.info("Performing Connector Latest Sync REST call - Gitlab");
-
-					responseEntity = WebClientUtil.executeInternalPostMethod(
-						internalWebClient,
-						PathConstants.GITLAB_DUMP.formatted(projectConnectorId),
-						new ParameterizedTypeReference<SyncDetailsTO>() {},
-						Exceptions.ERROR509,
-						"Gitlab Sync Failed",
-						ExceptionMessages.ERROR_MSG007,
-						ExceptionMessages.ERROR_MSG008);
-				}
-				case EXCEL -> {
-					logger.info("Performing Connector Latest Sync REST call - Excel");
-
-					responseEntity = WebClientUtil.executeInternalPostMethod(
-						internalWebClient,
-						PathConstants.EXCEL_DUMP.formatted(projectConnectorId),
-						new ParameterizedTypeReference<SyncDetailsTO>() {},
-						Exceptions.ERROR523,
-						"Excel Sync Failed",
-						ExceptionMessages.ERROR_MSG018,
-						ExceptionMessages.ERROR_MSG019);
-				}
-				case AZURE_GIT -> {
-					logger.info("Performing Connector Latest Sync REST call - AzureGit");
-
-					responseEntity = WebClientUtil.executeInternalPostMethod(
-						internalWebClient,
-						PathConstants.AZUREGIT_DUMP.formatted(projectConnectorId),
-						new ParameterizedTypeReference<SyncDetailsTO>() {},
-						Exceptions.ERROR524,
-						"AzureGit Sync Failed",
-						ExceptionMessages.ERROR_MSG020,
-						ExceptionMessages.ERROR_MSG021);
-				}
-				case RALLY -> {
-					logger.info("Performing Connector Latest Sync REST call - Rally");
-
-					responseEntity = WebClientUtil.executeInternalPostMethod(
-						internalWebClient,
-						PathConstants.RALLY_DUMP.formatted(projectConnectorId),
-						new ParameterizedTypeReference<SyncDetailsTO>(){},
-						Exceptions.ERROR528,
-						"Rally Sync Failed",
-						ExceptionMessages.ERROR_MSG022,
-						ExceptionMessages.ERROR_MSG023
-					);
-				}
-				case RTC -> {
-					logger.info("Performing Connector Latest Sync REST call - RTC");
-
-					responseEntity = WebClientUtil.executeInternalPostMethod(
-						internalWebClient,
-						PathConstants.RTC_DUMP.formatted(projectConnectorId),
-						new ParameterizedTypeReference<SyncDetailsTO>(){},
-						Exceptions.ERROR530,
-						"RTC Sync Failed",
-						ExceptionMessages.ERROR_MSG024,
-						ExceptionMessages.ERROR_MSG025
-					);
-				}
-				default -> {
-					return CompletableFuture.failedFuture(
-						new CustomException(HttpStatus.BAD_REQUEST, "Provided Tool is not supported for Sync"));
+			try {
+				return verifyConfigDetailsWithToolServices(pcmTO);
+			} catch (CustomException customException) {
+				try {
+					updateLastSyncDateById(projectConnectorId, CommonConstants.SYNC_FAILED, customException.getMessage());
+				} catch (CustomException ce) {
+					// do nothing, return the original exception
+					logger.error("Failed to Update Last Sync Date : ", ce.getMessage());
 				}
+				throw customException;
 			}
-			logger.info("Connector {} Latest Sync Completed", projectConnectorId);
+		}).subscribeOn(ioExecutionConfig.blockingScheduler());
+
+		return verifyConfigDetails
+			.then(Mono.defer(() -> {
+				logger.info("Connector {} Latest Sync Started", projectConnectorId);
+				logger.info("Performing Connector Latest Sync REST call - {}", syncEndpoint.displayName());
+
+				return executeInternalPostAsync(syncEndpoint, LATEST_SYNC_RESPONSE_TYPE)
+					.flatMap(responseEntity -> {
+						logger.info("Connector {} Latest Sync Completed", projectConnectorId);
+						return Mono.justOrEmpty(responseEntity.getBody());
+					})
+					.onErrorResume(e -> handleLatestSyncError(projectConnectorId, e));
+			}))
+			.filter(response -> response.getData() != null)
+			.switchIfEmpty(Mono.error(() -> new CustomException(Exceptions.ERROR122)))
+			.map(response -> {
+				response.setData(objectMapper.convertValue(response.getData(), SyncDetailsTO.class));
+				return response;
+			})
+			.toFuture();
+	}
 
-			ResponseTO<SyncDetailsTO> response = responseEntity.getBody();
-			if (response == null || response.getData() == null) {
-				return CompletableFuture.failedFuture(new CustomException(Exceptions.ERROR122));
-			}
-			response.setData(objectMapper.convertValue(response.getData(), SyncDetailsTO.class));
-			return CompletableFuture.completedFuture(response);
-		} catch (Exception e) {
-			// Handles following scenarios
-			// 1. Exceptions uncaught by CustomException
-			// 2. Exceptions caught by CustomException of status SERVICE_UNAVAILABLE
-			// In above cases it didn't connect to the tool service (down/unavailable)
-			// and the sync details needs to be updated manually from here
-			if (!(e instanceof CustomException customException)
-				|| (HttpStatus.SERVICE_UNAVAILABLE.equals(customException.getHttpStatus())
-				&& !customException.getMessage().toLowerCase().contains("wso"))) {
+	private <T> Mono<T> handleLatestSyncError(int projectConnectorId, Throwable e) {
+		CustomException error = e instanceof CustomException customException
+			? customException
+			: new CustomException(Exceptions.ERROR050, e);
+
+		// Handles following scenarios
+		// 1. Exceptions uncaught by CustomException
+		// 2. Exceptions caught by CustomException of status SERVICE_UNAVAILABLE
+		// In above cases it didn't connect to the tool service (down/unavailable)
+		// and the sync details needs to be updated manually from here
+		if (!(e instanceof CustomException customException)
+			|| (HttpStatus.SERVICE_UNAVAILABLE.equals(customException.getHttpStatus())
+			&& !customException.getMessage().toLowerCase().contains("wso"))) {
+
+			return Mono.<T>fromRunnable(() -> {
 				try {
 					updateLastSyncDateById(projectConnectorId, CommonConstants.SYNC_FAILED,
 						e instanceof CustomException customException
@@ -1002,18 +1131,38 @@ public class CKMuxProjectConnectorMappingServiceImpl implements CKMuxProjectConn
 					// do nothing, return the original exception
 					logger.error("Failed to update Latest sync details", ce);
 				}
-			}
-
-			if (e instanceof CustomException customException) {
-				return CompletableFuture.failedFuture(customException);
-			} else {
-				return CompletableFuture.failedFuture(new CustomException(Exceptions.ERROR050, e));
-			}
+			}).subscribeOn(ioExecutionConfig.blockingScheduler()).then(Mono.error(error));
 		}
+		return Mono.error(error);
+	}
+
+	/**
+	 * Non-blocking counterpart of {@link WebClientUtil#executeInternalPostMethod}
+	 */
+	private <T> Mono<ResponseEntity<T>> executeInternalPostAsync(SyncEndpoint syncEndpoint,
+		ParameterizedTypeReference<T> responseType) {
+
+		return internalWebClient.build()
+			.post()
+			.uri(syncEndpoint.uri())
+			.retrieve()
+			.toEntity(responseType)
+			.onErrorMap(WebClientResponseException.class, e -> {
+				logger.error(syncEndpoint.errorMsg(), e);
+				return new CustomException(e.getStatusCode(), syncEndpoint.failedMsg(), e);
+			})
+			.onErrorMap(WebClientRequestException.class, e -> {
+				logger.error(syncEndpoint.unavailableMsg(), e);
+				return new CustomException(HttpStatus.SERVICE_UNAVAILABLE, syncEndpoint.unavailableMsg(), e);
+			})
+			.onErrorMap(e -> !(e instanceof CustomException), e -> new CustomException(syncEndpoint.errorCode(), e));
 	}
 
+	/**
+	 * Queues the History Sync of the PCM on the {@link ConnectorSyncScheduler},
+	 * queued Latest Syncs of the same Tool are dispatched first
+	 */
 	@Override
-	@Async("connectorSyncTaskExecutor")
 	public CompletableFuture<SyncDetailsTO> syncSdlcHistoryData(ProjectConnectorMappingEntity pcmEntity,
 		boolean resumeInterruptedSync) {
 
@@ -1021,127 +1170,123 @@ public class CKMuxProjectConnectorMappingServiceImpl implements CKMuxProjectConn
 			return CompletableFuture.failedFuture(new CustomException(Exceptions.SYNC_ALREADY_RUNNING));
 		}
 
+		CommonConstants.Tool tool = resolveSyncTool(pcmEntity);
+		if (tool == null) {
+			return CompletableFuture.failedFuture(
+				new CustomException(HttpStatus.BAD_REQUEST, "Provided Tool is not supported for History Sync"));
+		}
+
+		return connectorSyncScheduler.submit(tool, pcmEntity.getProjectConnectorId(),
+			ConnectorSyncScheduler.SyncType.HISTORY, () -> executeSyncSdlcHistoryData(pcmEntity, tool));
+	}
+
+	/**
+	 * Performs the History Sync without holding a thread while the Tool service syncs,
+	 * blocking steps (secret store, config verification, DB/WSO2 updates) run on the I/O blocking scheduler
+	 */
+	CompletableFuture<SyncDetailsTO> executeSyncSdlcHistoryData(ProjectConnectorMappingEntity pcmEntity,
+		CommonConstants.Tool tool) {
+
 		int projectConnectorId = pcmEntity.getProjectConnectorId();
 		String toolName = pcmEntity.getConnectorHubEntity().getToolMasterEntity().getToolName();
 
+		SyncEndpoint syncEndpoint = switch (tool) {
+			case ADO -> new SyncEndpoint("ADO", PathConstants.ADO_HISTORY_DUMP.formatted(projectConnectorId),
+				Exceptions.ERROR507, "ADO History Sync Failed", ExceptionMessages.ERROR_MSG003,
+				ExceptionMessages.ERROR_MSG004);
+			case JIRA -> new SyncEndpoint("Jira", PathConstants.JIRA_HISTORY_DUMP.formatted(projectConnectorId),
+				Exceptions.ERROR508, "Jira History Sync Failed", ExceptionMessages.ERROR_MSG005,
+				ExceptionMessages.ERROR_MSG006);
+			case RALLY -> new SyncEndpoint("Rally", PathConstants.RALLY_HISTORY_DUMP.formatted(projectConnectorId),
+				Exceptions.ERROR528, "Rally History Sync Failed", ExceptionMessages.ERROR_MSG022,
+				ExceptionMessages.ERROR_MSG023);
+			default -> null;
+		};
+		if (syncEndpoint == null) {
+			return CompletableFuture.failedFuture(
+				new CustomException(HttpStatus.BAD_REQUEST, "Provided Tool is not supported for History Sync")
+			);
+		}
+
 		ProjectConnectorMappingTO pcmTO = new ProjectConnectorMappingTO();
 		BeanUtils.copyProperties(pcmEntity, pcmTO);
 		pcmTO.setToolName(toolName);
 
-		try {
+		Mono<Boolean> verifyConfigDetails = Mono.fromCallable(() -> {
 			// will fetch the accessToken present in aws/vault
-			setAccessToken(pcmTO,pcmTO.getToolName());
-		} catch (CustomException customException) {
-			// do nothing, return the original exception
-			return CompletableFuture.failedFuture(customException);
-		}
-		
-		try {
-			verifyConfigDetailsWithToolServices(pcmTO);
-		} catch (CustomException customException) {
-			try {
-				updateHistorySyncDetails(pcmEntity, SyncStatus.FAILED, customException.getMessage());
-			} catch (CustomException ce) {
-				// do nothing, return the original exception
-				logger.error("Failed to Update History Sync details : ",ce.getMessage());
-
-			}
-			return CompletableFuture.failedFuture(customException);
-		}
-
-		try {
-			logger.info("Connector {} History Sync Started", projectConnectorId);
-			updateHistorySyncDetails(pcmEntity, RUNNING, null);
-
-			ResponseEntity<ResponseTO<Void>> responseEntity = null;
-
-			switch (CommonConstants.Tool.resolve(toolName)) {
-				case ADO -> {
-					logger.info("Performing Connector History Sync REST call - ADO");
-
-					responseEntity = WebClientUtil.executeInternalPostMethod(
-						internalWebClient,
-						PathConstants.ADO_HISTORY_DUMP.formatted(projectConnectorId),
-						new ParameterizedTypeReference<Void>() {},
-						Exceptions.ERROR507,
-						"ADO History Sync Failed",
-						ExceptionMessages.ERROR_MSG003,
-						ExceptionMessages.ERROR_MSG004
-					);
-				}
-				case JIRA -> {
-					logger.info("Performing Connector History Sync REST call - Jira");
-
-					responseEntity = WebClientUtil.executeInternalPostMethod(
-						internalWebClient,
-						PathConstants.JIRA_HISTORY_DUMP.formatted(projectConnectorId),
-						new ParameterizedTypeReference<Void>() {},
-						Exceptions.ERROR508,
-						"Jira History Sync Failed",
-						ExceptionMessages.ERROR_MSG005,
-						ExceptionMessages.ERROR_MSG006
-					);
-				}
-				case RALLY -> {
-					logger.info("Performing Connector History Sync REST call - Rally");
-
-					responseEntity = WebClientUtil.executeInternalPostMethod(
-						internalWebClient,
-						PathConstants.RALLY_HISTORY_DUMP.formatted(projectConnectorId),
-						new ParameterizedTypeReference<Void>() {},
-						Exceptions.ERROR528,
-						"Rally History Sync Failed",
-						ExceptionMessages.ERROR_MSG022,
-						ExceptionMessages.ERROR_MSG023
-					);
-				}
-				default -> {
-					return CompletableFuture.failedFuture(
-						new CustomException(HttpStatus.BAD_REQUEST, "Provided Tool is not supported for History Sync")
-					);
-				}
-			}
-			logger.info("Connector {} History Sync Completed", projectConnectorId);
-
-			ResponseTO<Void> response = responseEntity.getBody();
-			if (response == null) {
-				return CompletableFuture.failedFuture(new CustomException(Exceptions.ERROR122));
-			}
-
-			String lastHistorySyncDate = updateHistorySyncDetails(pcmEntity, SyncStatus.COMPLETED, null);
-
-			SyncDetailsTO result = new SyncDetailsTO();
-			result.setProjectConnectorId(projectConnectorId);
-			result.setLastHistorySyncDate(lastHistorySyncDate);
-			result.setHistorySyncStatus(SyncStatus.COMPLETED.name());
-
-			return CompletableFuture.completedFuture(result);
+			setAccessToken(pcmTO, pcmTO.getToolName());
 
-		} catch (Exception e) {
 			try {
-				updateHistorySyncDetails(pcmEntity, SyncStatus.FAILED,
-					e instanceof CustomException ce
-						? ce.getMessage()
-						: Exceptions.ERROR050.getMessage()
-				);
-			} catch (CustomException ce) {
-				// do nothing, return the original exception
-				logger.error("Failed to update History sync details", ce);
-			}
-
-			if (e instanceof CustomException customException) {
-				return CompletableFuture.failedFuture(customException);
-			} else {
-				return CompletableFuture.failedFuture(
-					new CustomException(Exceptions.ERROR050, e)
-				);
+				return verifyConfigDetailsWithToolServices(pcmTO);
+			} catch (CustomException customException) {
+				try {
+					updateHistorySyncDetails(pcmEntity, SyncStatus.FAILED, customException.getMessage());
+				} catch (CustomException ce) {
+					// do nothing, return the original exception
+					logger.error("Failed to Update History Sync details : ",ce.getMessage());
+				}
+				throw customException;
 			}
-		}
+		}).subscribeOn(ioExecutionConfig.blockingScheduler());
+
+		return verifyConfigDetails
+			.then(Mono.defer(() -> Mono
+				.fromCallable(() -> {
+					logger.info("Connector {} History Sync Started", projectConnectorId);
+					updateHistorySyncDetails(pcmEntity, RUNNING, null);
+					return true;
+				})
+				.subscribeOn(ioExecutionConfig.blockingScheduler())
+				.then(Mono.defer(() -> {
+					logger.info("Performing Connector History Sync REST call - {}", syncEndpoint.displayName());
+					return executeInternalPostAsync(syncEndpoint, HISTORY_SYNC_RESPONSE_TYPE);
+				}))
+				.flatMap(responseEntity -> {
+					logger.info("Connector {} History Sync Completed", projectConnectorId);
+					return Mono.justOrEmpty(responseEntity.getBody());
+				})
+				.flatMap(response -> Mono
+					.fromCallable(() -> updateHistorySyncDetails(pcmEntity, SyncStatus.COMPLETED, null))
+					.subscribeOn(ioExecutionConfig.blockingScheduler()))
+				.map(lastHistorySyncDate -> {
+					SyncDetailsTO result = new SyncDetailsTO();
+					result.setProjectConnectorId(projectConnectorId);
+					result.setLastHistorySyncDate(lastHistorySyncDate);
+					result.setHistorySyncStatus(SyncStatus.COMPLETED.name());
+					return result;
+				})
+				.onErrorResume(e -> Mono.<SyncDetailsTO>fromRunnable(() -> {
+					try {
+						updateHistorySyncDetails(pcmEntity, SyncStatus.FAILED,
+							e instanceof CustomException ce
+								? ce.getMessage()
+								: Exceptions.ERROR050.getMessage()
+						);
+					} catch (CustomException ce) {
+						// do nothing, return the original exception
+						logger.error("Failed to update History sync details", ce);
+					}
+				}).subscribeOn(ioExecutionConfig.blockingScheduler()).then(Mono.error(
+					e instanceof CustomException customException
+						? customException
+						: new CustomException(Exceptions.ERROR050, e)
+				)))
+			))
+			.switchIfEmpty(Mono.error(() -> new CustomException(Exceptions.ERROR122)))
+			.toFuture();
 	}
 
 	@Override
 	@NonNull
 	public List<SyncDetailsTO> checkPCMSyncStatus(List<SyncDetailsTO> pcmSyncRunningList) {
+		return checkPCMSyncStatus(pcmSyncRunningList, new HashSet<>());
+	}
+
+	/**
+	 * @param existingPcmIds filled with the received pcmIds that still exist
+	 */
+	private List<SyncDetailsTO> checkPCMSyncStatus(List<SyncDetailsTO> pcmSyncRunningList,
+		Set<Integer> existingPcmIds) {
 		List<SyncDetailsTO> result = new ArrayList<>();
 
 		if (CollectionUtils.isEmpty(pcmSyncRunningList)) {
@@ -1159,6 +1304,7 @@ public class CKMuxProjectConnectorMappingServiceImpl implements CKMuxProjectConn
 		);
 
 		for (SyncDetailsTO pcmSyncDetails : syncDetailsFromDB) {
+			existingPcmIds.add(pcmSyncDetails.getProjectConnectorId());
 			SyncDetailsTO inputSyncDetails = inputSyncDetailsMapByPCMId.get(pcmSyncDetails.getProjectConnectorId());
 			SyncDetailsTO outputSyncDetails = new SyncDetailsTO();
 
@@ -1186,6 +1332,87 @@ public class CKMuxProjectConnectorMappingServiceImpl implements CKMuxProjectConn
 		return result;
 	}
 
+	/**
+	 * Push based alternative of {@link #checkPCMSyncStatus}, meant to be served as Server-Sent Events.
+	 * Emits the status changes of the received PCMs, starting with the result of {@link #checkPCMSyncStatus}
+	 * and followed by every sync transition published on the {@link SyncStatusEventBus}.
+	 * Completes once every received RUNNING sync / history sync is no longer RUNNING, PCMs that don't exist
+	 * are not waited for, or after sync.status.subscription.timeout-seconds
+	 */
+	@Override
+	@NonNull
+	public Flux<SyncDetailsTO> subscribePCMSyncStatus(List<SyncDetailsTO> pcmSyncRunningList) {
+		if (CollectionUtils.isEmpty(pcmSyncRunningList)) {
+			return Flux.empty();
+		}
+
+		Set<Integer> pcmIds = pcmSyncRunningList.stream().map(SyncDetailsTO::getProjectConnectorId)
+			.collect(Collectors.toSet());
+
+		// pcmIds whose sync / history sync is still RUNNING, the stream completes once both are empty
+		Set<Integer> runningSyncIds = ConcurrentHashMap.newKeySet();
+		Set<Integer> runningHistorySyncIds = ConcurrentHashMap.newKeySet();
+		for (SyncDetailsTO syncDetails : pcmSyncRunningList) {
+			if (RUNNING.name().equals(syncDetails.getSyncStatus()))
+				runningSyncIds.add(syncDetails.getProjectConnectorId());
+			if (RUNNING.name().equals(syncDetails.getHistorySyncStatus()))
+				runningHistorySyncIds.add(syncDetails.getProjectConnectorId());
+		}
+		if (runningSyncIds.isEmpty() && runningHistorySyncIds.isEmpty()) {
+			return Flux.empty();
+		}
+
+		// signalled if nothing is left to wait for once the current state is read
+		Sinks.One<Boolean> settled = Sinks.one();
+
+		// subscribe to the live events before reading the current state, so no transition is missed in between
+		return Flux.merge(
+			syncStatusEventBus.pcmSyncEvents(pcmIds),
+			Mono.fromCallable(() -> {
+				Set<Integer> existingPcmIds = new HashSet<>();
+				List<SyncDetailsTO> transitions = checkPCMSyncStatus(pcmSyncRunningList, existingPcmIds);
+				// deleted/unknown PCMs never report a transition
+				runningSyncIds.retainAll(existingPcmIds);
+				runningHistorySyncIds.retainAll(existingPcmIds);
+				if (transitions.isEmpty() && runningSyncIds.isEmpty() && runningHistorySyncIds.isEmpty())
+					settled.tryEmitValue(true);
+				return transitions;
+			})
+				.subscribeOn(ioExecutionConfig.blockingScheduler())
+				.flatMapIterable(Function.identity())
+		)
+			.takeUntil(syncDetails -> {
+				if (StringUtils.hasText(syncDetails.getSyncStatus())
+					&& !RUNNING.name().equals(syncDetails.getSyncStatus()))
+					runningSyncIds.remove(syncDetails.getProjectConnectorId());
+				if (StringUtils.hasText(syncDetails.getHistorySyncStatus())
+					&& !RUNNING.name().equals(syncDetails.getHistorySyncStatus()))
+					runningHistorySyncIds.remove(syncDetails.getProjectConnectorId());
+				return runningSyncIds.isEmpty() && runningHistorySyncIds.isEmpty();
+			})
+			.takeUntilOther(settled.asMono())
+			.take(Duration.ofSeconds(syncStatusSubscriptionTimeoutSeconds));
+	}
+
+	private void publishSyncStatus(int projectConnectorId, String syncStatus, String syncMsg, String lastSyncDate) {
+		SyncDetailsTO syncDetails = new SyncDetailsTO();
+		syncDetails.setProjectConnectorId(projectConnectorId);
+		syncDetails.setSyncStatus(syncStatus);
+		syncDetails.setSyncMsg(syncMsg);
+		syncDetails.setLastSyncDate(lastSyncDate);
+		syncStatusEventBus.publish(syncDetails);
+	}
+
+	private void publishHistorySyncStatus(int projectConnectorId, String historySyncStatus, String historySyncMsg,
+		String lastHistorySyncDate) {
+		SyncDetailsTO syncDetails = new SyncDetailsTO();
+		syncDetails.setProjectConnectorId(projectConnectorId);
+		syncDetails.setHistorySyncStatus(historySyncStatus);
+		syncDetails.setHistorySyncMsg(historySyncMsg);
+		syncDetails.setLastHistorySyncDate(lastHistorySyncDate);
+		syncStatusEventBus.publish(syncDetails);
+	}
+
 	@Override
 	public String updateLastSyncDateById(Integer projectConnectorId, String syncStatus, String syncMsg)
 		throws CustomException {
@@ -1204,6 +1431,7 @@ public class CKMuxProjectConnectorMappingServiceImpl implements CKMuxProjectConn
 
 			pcmEntity = pcmDao.save(pcmEntity);
 			returnedData = pcmEntity.getLastSyncDate();
+			publishSyncStatus(projectConnectorId, syncStatus, syncMsg, returnedData);
 
 			// PUSH updated lastSyncDate to CK
 			logger.info("WSO2 - Updating ProjectConnectorMapping:{} lastSyncDate In CK",
@@ -1212,7 +1440,7 @@ public class CKMuxProjectConnectorMappingServiceImpl implements CKMuxProjectConn
 			pcmTO.setSyncStatus(syncStatus);
 			pcmTO.setSyncMsg(syncMsg);
 			pcmTO.setLastSyncDate(returnedData);
-			updateProjectConnectorInCK(pcmTO);
+			enqueueProjectConnectorUpdateInCK(pcmTO);
 
 		} else if (syncStatus.equalsIgnoreCase(CommonConstants.SYNC_FAILED)) {
 			logger.info("Sync Status is failed");
@@ -1221,6 +1449,7 @@ public class CKMuxProjectConnectorMappingServiceImpl implements CKMuxProjectConn
 
 			pcmEntity = pcmDao.save(pcmEntity);
 			returnedData = pcmEntity.getSyncMsg();
+			publishSyncStatus(projectConnectorId, syncStatus, syncMsg, pcmEntity.getLastSyncDate());
 
 			// PUSH updated lastSyncDate to CK
 			logger.info("WSO2 - Updating ProjectConnectorMapping:{} lastSyncDate In CK",
@@ -1228,7 +1457,7 @@ public class CKMuxProjectConnectorMappingServiceImpl implements CKMuxProjectConn
 			pcmTO.setProjectConnectorId(projectConnectorId);
 			pcmTO.setSyncStatus(syncStatus);
 			pcmTO.setSyncMsg(syncMsg);
-			updateProjectConnectorInCK(pcmTO);
+			enqueueProjectConnectorUpdateInCK(pcmTO);
 		} else if (syncStatus.equalsIgnoreCase(CommonConstants.SYNC_RUNNING)) {
 			logger.info("Sync Status is running");
 			pcmEntity.setSyncStatus(syncStatus);
@@ -1236,6 +1465,7 @@ public class CKMuxProjectConnectorMappingServiceImpl implements CKMuxProjectConn
 
 			pcmEntity = pcmDao.save(pcmEntity);
 			returnedData = pcmEntity.getSyncStatus();
+			publishSyncStatus(projectConnectorId, syncStatus, null, pcmEntity.getLastSyncDate());
 
 			// PUSH updated lastSyncDate to CK
 			logger.info("WSO2 - Updating ProjectConnectorMapping:{} lastSyncDate In CK",
@@ -1250,7 +1480,7 @@ public class CKMuxProjectConnectorMappingServiceImpl implements CKMuxProjectConn
 				pcmTO.setFieldDetailsList(fieldMappingService.getFieldMappingDetails(pcmEntity, true));
 			}
 
-			updateProjectConnectorInCK(pcmTO);
+			enqueueProjectConnectorUpdateInCK(pcmTO);
 		}
 
 		return returnedData;
@@ -1281,12 +1511,14 @@ public class CKMuxProjectConnectorMappingServiceImpl implements CKMuxProjectConn
 			}
 		}
 
+		publishHistorySyncStatus(pcmId, syncStatus.name(), syncMsg, lastHistorySyncDate);
+
 		// PUSH updated lastHistorySyncDate to CK
 		logger.info("WSO2 - Updating ProjectConnectorMapping:{} lastHistorySyncDate In CK", pcmId);
 		pcmTO.setHistorySyncStatus(syncStatus.name());
 		pcmTO.setHistorySyncMsg(syncMsg);
 
-		updateProjectConnectorInCK(pcmTO);
+		enqueueProjectConnectorUpdateInCK(pcmTO);
 
 		return lastHistorySyncDate;
 	}
@@ -1325,19 +1557,27 @@ public class CKMuxProjectConnectorMappingServiceImpl implements CKMuxProjectConn
 		List<ProjectConnectorMappingTO> pcmList = new ArrayList<>();
 		Iterable<ProjectConnectorMappingEntity> pcmData = pcmDao.findPCMByProjectId(projectId);
 
+		// resolve each distinct project once for the whole listing
+		Set<Integer> projectIds = new LinkedHashSet<>();
+		for (ProjectConnectorMappingEntity pcmObj : pcmData) {
+			if (pcmObj.getProjectId() != 0)
+				projectIds.add(pcmObj.getProjectId());
+		}
+		Map<Integer, ProjectTO> projectMap = fetchProjects(projectIds);
+
 		for (ProjectConnectorMappingEntity pcmObj : pcmData) {
 
 			//			3 ---> Category Id of Test Management Tool
 			// Removed check to only fetch test management ids
 			ProjectConnectorMappingTO pcm = new ProjectConnectorMappingTO();
-			BeanUtils.copyProperties(pcmObj, pcm);
+			BeanUtils.copyProperties(pcmObj, pcm, "accessToken");
 			pcm.setAccessToken("");
 			if (pcmObj.getProjectId() != 0) {
 				/*
 				 * Removing auth type as paramater for keycloak changes User story - 20110
 				 */
 				//				ProjectTO projectTo = configService.fetchProject(pcmObj.getProjectId(), token);
-				ProjectTO projectTo = fetchProject(pcmObj.getProjectId());
+				ProjectTO projectTo = projectMap.get(pcmObj.getProjectId());
 				pcm.setProjectId(projectTo.getProjectId());
 				// pcm.setProjectName(projectTo.getProjectName());
 			} else {
@@ -1378,7 +1618,7 @@ public class CKMuxProjectConnectorMappingServiceImpl implements CKMuxProjectConn
 		for (ProjectConnectorMappingEntity pcmObj : pcmData) {
 
 			ProjectConnectorMappingTO pcm = new ProjectConnectorMappingTO();
-			BeanUtils.copyProperties(pcmObj, pcm);
+			BeanUtils.copyProperties(pcmObj, pcm, "accessToken");
 			pcm.setAccessToken("");
 			if (pcmObj.getProjectId() != 0) {
 				pcm.setProjectId(projectId);
@@ -1411,32 +1651,106 @@ public class CKMuxProjectConnectorMappingServiceImpl implements CKMuxProjectConn
 
 	}
 
-	@SuppressWarnings("unchecked")
-	public ProjectTO fetchProject(int projectId) throws CustomException {
+	/**
+	 * Resolves the distinct projects from WSO2, served from the TTL bounded cache where possible.
+	 * <ul>
+	 * <li>The cache misses are fetched together in one batch, WSO2 only exposes the per project endpoint so
+	 * the batch is one parallel round on the blocking scheduler</li>
+	 * <li>Expired entries are swept once per batch, only when the cache has grown past its max size</li>
+	 * <li>Each caller gets its own copy of the cached ProjectTO</li>
+	 * </ul>
+	 *
+	 * @return projectId -> ProjectTO
+	 */
+	public Map<Integer, ProjectTO> fetchProjects(Collection<Integer> projectIds) throws CustomException {
+		long now = System.nanoTime();
+		Map<Integer, ProjectTO> result = new HashMap<>(projectIds.size());
+		Set<Integer> missedProjectIds = new LinkedHashSet<>();
+		for (Integer projectId : projectIds) {
+			CachedProject cachedProject = projectCache.get(projectId);
+			if (cachedProject != null && now - cachedProject.expiresAtNanos() < 0) {
+				result.put(projectId, copyOf(cachedProject.project()));
+			} else {
+				missedProjectIds.add(projectId);
+			}
+		}
+		if (missedProjectIds.isEmpty())
+			return result;
+
+		Map<Integer, ProjectTO> fetched = fetchProjectsBatch(missedProjectIds);
+
+		if (projectCache.size() + fetched.size() > projectCacheMaxSize) {
+			projectCache.values().removeIf(cached -> now - cached.expiresAtNanos() >= 0);
+		}
+		long expiresAtNanos = now + TimeUnit.SECONDS.toNanos(projectCacheTtlSeconds);
+		for (Integer projectId : missedProjectIds) {
+			ProjectTO projectTo = fetched.get(projectId);
+			if (projectTo != null && projectCache.size() < projectCacheMaxSize) {
+				projectCache.put(projectId, new CachedProject(projectTo, expiresAtNanos));
+			}
+			result.put(projectId, copyOf(projectTo));
+		}
+		return result;
+	}
+
+	public ProjectTO fetchProjectCached(int projectId) throws CustomException {
+		return fetchProjects(List.of(projectId)).get(projectId);
+	}
+
+	private Map<Integer, ProjectTO> fetchProjectsBatch(Collection<Integer> projectIds) throws CustomException {
+		Map<Integer, ProjectTO> result = new ConcurrentHashMap<>(projectIds.size());
+		try {
+			Flux.fromIterable(projectIds)
+				.flatMap(projectId -> Mono.fromCallable(() -> fetchProject(projectId))
+					.doOnNext(projectTo -> result.put(projectId, projectTo))
+					.subscribeOn(ioExecutionConfig.blockingScheduler()), projectFetchParallelism)
+				.then()
+				.block();
+		} catch (RuntimeException e) {
+			Throwable cause = reactor.core.Exceptions.unwrap(e);
+			if (cause instanceof CustomException customException)
+				throw customException;
+			throw e;
+		}
+		return result;
+	}
 
-		String authUrl = wso2Config.url() + PathConstants.AUTHENTICATION;
-		String token = StoryUtils.generateToken(authUrl, wso2RestTemplate, wso2Config.basicAuth(), wso2Config.apiKey());
+	private static ProjectTO copyOf(ProjectTO projectTo) {
+		if (projectTo == null)
+			return null;
+		ProjectTO copy = new ProjectTO();
+		BeanUtils.copyProperties(projectTo, copy);
+		return copy;
+	}
 
-		HttpHeaders headers = new HttpHeaders();
-		headers.add(CommonConstants.WSO2_ACCESS_TOKEN, token);
-		headers.add(CommonConstants.API_KEY, wso2Config.apiKey());
-		headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+	@SuppressWarnings("unchecked")
+	public ProjectTO fetchProject(int projectId) throws CustomException {
 
-		ResponseEntity<Object> response = null;
 		ProjectTO projectTo = null;
 
 		String uri = wso2Config.url() + PathConstants.FETCH_PROJECT_BY_ID.replace(PROJECT, String.valueOf(projectId));
 
 		try {
-			response = wso2RestTemplate.exchange(uri, HttpMethod.GET, new HttpEntity<Object>(headers), Object.class);
-			if (response.getStatusCode().is2xxSuccessful()) {
-				Object res = response.getBody();
-				if (res != null) {
-					Map<String, Object> responseData = (Map<String, Object>) res;
-					Object resultTemp = responseData.get(CommonConstants.DATA);
-					projectTo = objectMapper.convertValue(resultTemp, ProjectTO.class);
+			projectTo = wso2TokenProvider.execute(token -> {
+				HttpHeaders headers = new HttpHeaders();
+				headers.add(CommonConstants.WSO2_ACCESS_TOKEN, token);
+				headers.add(CommonConstants.API_KEY, wso2Config.apiKey());
+				headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+
+				ResponseEntity<Object> response =
+					wso2RestTemplate.exchange(uri, HttpMethod.GET, new HttpEntity<Object>(headers), Object.class);
+				if (response.getStatusCode().is2xxSuccessful()) {
+					Object res = response.getBody();
+					if (res != null) {
+						Map<String, Object> responseData = (Map<String, Object>) res;
+						Object resultTemp = responseData.get(CommonConstants.DATA);
+						return objectMapper.convertValue(resultTemp, ProjectTO.class);
+					}
 				}
-			}
+				return null;
+			});
+		} catch (CustomException e) {
+			throw e;
 		} catch (IllegalStateException | ResourceAccessException e) {
 			logger.error(ExceptionMessages.ERROR_MSG015, (Object[]) e.getStackTrace());
 			throw new CustomException(Exceptions.ERROR516);
@@ -1456,31 +1770,36 @@ public class CKMuxProjectConnectorMappingServiceImpl implements CKMuxProjectConn
 	@SuppressWarnings({ "unchecked" })
 	public int fetchNextPcmId() throws CustomException {
 		int pcmId = 0;
-		String authUrl = wso2Config.url() + PathConstants.AUTHENTICATION;
-		String token = StoryUtils.generateToken(authUrl, wso2RestTemplate, wso2Config.basicAuth(), wso2Config.apiKey());
 		// String uri = PathConstants.HTTPS + wso2Ip + PathConstants.COLON + wso2Port +
 		// PathConstants.NEXTPCMID;
 
 		String uri = wso2Config.url() + PathConstants.NEXTPCMID;
 
-		HttpHeaders headers = new HttpHeaders();
-		headers.add(CommonConstants.WSO2_ACCESS_TOKEN, token);
-		headers.add(CommonConstants.API_KEY, wso2Config.apiKey());
-		headers.setAccept(List.of(MediaType.APPLICATION_JSON));
-		HttpEntity<String> entity = new HttpEntity<>(headers);
 		try {
-			ResponseEntity<Object> response = wso2RestTemplate.exchange(uri, HttpMethod.GET, entity, Object.class);
-			if (response.getStatusCode().is2xxSuccessful()) {
-				Object reponseBody = response.getBody();
-				if (reponseBody != null) {
-					Map<String, Object> responseDataMap = (Map<String, Object>) reponseBody;
-					pcmId = (Integer) responseDataMap.get("pcmId");
-					logger.info("pcmId Fetched successfully  : {} ");
+			pcmId = wso2TokenProvider.execute(token -> {
+				HttpHeaders headers = new HttpHeaders();
+				headers.add(CommonConstants.WSO2_ACCESS_TOKEN, token);
+				headers.add(CommonConstants.API_KEY, wso2Config.apiKey());
+				headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+				HttpEntity<String> entity = new HttpEntity<>(headers);
+
+				ResponseEntity<Object> response = wso2RestTemplate.exchange(uri, HttpMethod.GET, entity, Object.class);
+				if (response.getStatusCode().is2xxSuccessful()) {
+					Object reponseBody = response.getBody();
+					if (reponseBody != null) {
+						Map<String, Object> responseDataMap = (Map<String, Object>) reponseBody;
+						Integer nextPcmId = (Integer) responseDataMap.get("pcmId");
+						logger.info("pcmId Fetched successfully  : {} ", nextPcmId);
+						return nextPcmId;
+					}
+					return 0;
+				} else {
+					logger.error(ExceptionMessages.ERROR_MSG051);
+					throw new CustomException(Exceptions.ERROR050);
 				}
-			} else {
-				logger.error(ExceptionMessages.ERROR_MSG051);
-				throw new CustomException(Exceptions.ERROR050);
-			}
+			});
+		} catch (CustomException e) {
+			throw e;
 		} catch (IllegalStateException | ResourceAccessException e) {
 			logger.error(ExceptionMessages.ERROR_MSG015, (Object[]) e.getStackTrace());
 			throw new CustomException(Exceptions.ERROR516);
@@ -1512,3 +1831,8 @@ public class CKMuxProjectConnectorMappingServiceImpl implements CKMuxProjectConn
 		return pcmDao.fetchPCMGitLabRowCount(toolApiUrl, testPlanFolderName, projectId, branchName, connectorId);
 	}
 }
+
+record CachedProject(ProjectTO project, long expiresAtNanos) {}
+
+record SyncEndpoint(String displayName, String uri, Exceptions errorCode, String failedMsg, String errorMsg,
+	String unavailableMsg) {}
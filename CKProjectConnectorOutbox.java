@@ -0,0 +1,374 @@
+package com.lti.knowledge.service.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lti.common.config.WSO2Config;
+import com.lti.common.constants.PathConstants;
+import com.lti.common.exception.CustomException;
+import com.lti.common.to.ProjectConnectorMappingTO;
+import com.lti.knowledge.util.StoryUtils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Outbox of the "update ProjectConnectorMapping in CK" WSO2 calls made on sync transitions.
+ *
+ * <li>Updates of the same PCM are coalesced into its latest state, so only the latest state is shipped
+ * <li>Pending updates are shipped in batches by a single background thread, failed ones are retried with backoff,
+ * an update still failing after ck.outbox.max-attempts is dropped and logged
+ * <li>Pending updates are journaled by the shipping thread under the assets path, one journal per instance,
+ * and reloaded on startup
+ * <li>Each instance holds a lock on its journal while running, on startup the journals no instance holds
+ * (instance replaced under a new id) are adopted
+ */
+@Service
+public class CKProjectConnectorOutbox {
+
+	private static final Logger logger = LoggerFactory.getLogger(CKProjectConnectorOutbox.class);
+
+	private static final String JOURNAL_PREFIX = "ck-project-connector-";
+	private static final String JOURNAL_SUFFIX = ".json";
+	private static final String LOCK_SUFFIX = ".lock";
+
+	@Value("${assets.path}")
+	private String assetsPath;
+
+	@Value("${ck.outbox.flush-interval-ms:1000}")
+	private long flushIntervalMs;
+
+	@Value("${ck.outbox.batch-size:50}")
+	private int batchSize;
+
+	@Value("${ck.outbox.max-backoff-ms:300000}")
+	private long maxBackoffMs;
+
+	@Value("${ck.outbox.max-attempts:20}")
+	private int maxAttempts;
+
+	// instances sharing the assets volume must keep their own journal
+	@Value("${ck.outbox.instance-id:${HOSTNAME:local}}")
+	private String instanceId;
+
+	@Autowired
+	private WSO2Config wso2Config;
+
+	@Autowired
+	private RestTemplate wso2RestTemplate;
+
+	@Autowired
+	private WSO2TokenProvider wso2TokenProvider;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	// projectConnectorId -> pending update
+	private final Map<Integer, PendingCKUpdate> pendingUpdateMap = new ConcurrentHashMap<>();
+
+	// pending updates changed since the journal was persisted
+	private final AtomicBoolean journalStale = new AtomicBoolean(false);
+
+	private ScheduledExecutorService flushScheduledExecutorService = null;
+
+	private Path journalPath;
+
+	// held while the instance runs, a journal whose lock can be taken is orphaned
+	private FileChannel journalLockChannel = null;
+
+	private Counter droppedCounter;
+
+	@PostConstruct
+	private void setup() {
+		journalPath = journalDirectory().resolve(
+			JOURNAL_PREFIX + instanceId.replaceAll("[^A-Za-z0-9._-]", "_") + JOURNAL_SUFFIX);
+		lockJournal();
+		loadJournal(journalPath);
+		adoptOrphanedJournals();
+
+		meterRegistry.gaugeMapSize("ck.outbox.pending", List.of(), pendingUpdateMap);
+		droppedCounter = meterRegistry.counter("ck.outbox.dropped");
+
+		flushScheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
+		flushScheduledExecutorService.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs,
+			TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	private void shutdown() {
+		flushScheduledExecutorService.shutdown();
+		persistJournal();
+		unlockJournal();
+	}
+
+	/**
+	 * Ships the update to CK right away
+	 */
+	public void send(ProjectConnectorMappingTO ckUpdate) throws CustomException {
+		String uri = wso2Config.url() + PathConstants.UPDATE_PROJECT_CONNECTOR.replace("{projectConnectorId}",
+			String.valueOf(ckUpdate.getProjectConnectorId()));
+
+		wso2TokenProvider.execute(token -> {
+			HttpHeaders headers = new HttpHeaders();
+			headers.add("AccessToken", token);
+			headers.add("apikey", wso2Config.apiKey());
+			headers.setContentType(MediaType.APPLICATION_JSON);
+			HttpEntity<Object> entity = new HttpEntity<>(ckUpdate, headers);
+
+			StoryUtils.executePutMethod(wso2RestTemplate, uri, entity);
+			return null;
+		});
+	}
+
+	/**
+	 * Queues the update to be shipped to CK, coalescing it with the pending update of the same PCM.
+	 * Only the in-memory outbox is updated, the journal is persisted by the shipping thread
+	 */
+	public void enqueue(ProjectConnectorMappingTO ckUpdate) {
+		pendingUpdateMap.merge(ckUpdate.getProjectConnectorId(), new PendingCKUpdate(ckUpdate, 0, 0),
+			(pending, latest) -> new PendingCKUpdate(coalesce(pending.update(), latest.update()), 0, 0));
+		journalStale.set(true);
+	}
+
+	/**
+	 * Drops the pending update of the PCM, once the PCM is deleted
+	 */
+	public void discard(int projectConnectorId) {
+		if (pendingUpdateMap.remove(projectConnectorId) != null)
+			journalStale.set(true);
+	}
+
+	/**
+	 * Latest sync/history sync state wins, details only carried by an older update (sync dates,
+	 * field mapping details sent with RUNNING) are retained
+	 */
+	ProjectConnectorMappingTO coalesce(ProjectConnectorMappingTO pending, ProjectConnectorMappingTO latest) {
+		ProjectConnectorMappingTO result = new ProjectConnectorMappingTO();
+		BeanUtils.copyProperties(pending, result);
+
+		if (latest.getSyncStatus() != null) {
+			result.setSyncStatus(latest.getSyncStatus());
+			result.setSyncMsg(latest.getSyncMsg());
+			if (latest.getLastSyncDate() != null)
+				result.setLastSyncDate(latest.getLastSyncDate());
+		}
+		if (latest.getHistorySyncStatus() != null) {
+			result.setHistorySyncStatus(latest.getHistorySyncStatus());
+			result.setHistorySyncMsg(latest.getHistorySyncMsg());
+			if (latest.getLastHistorySyncDate() != null)
+				result.setLastHistorySyncDate(latest.getLastHistorySyncDate());
+		}
+		if (latest.getFieldDetailsList() != null)
+			result.setFieldDetailsList(latest.getFieldDetailsList());
+		if (latest.getResyncField() != null)
+			result.setResyncField(latest.getResyncField());
+		if (latest.getResyncHistoryField() != null)
+			result.setResyncHistoryField(latest.getResyncHistoryField());
+
+		return result;
+	}
+
+	private void flush() {
+		try {
+			ship();
+		} finally {
+			if (journalStale.getAndSet(false)) {
+				persistJournal();
+			}
+		}
+	}
+
+	private void ship() {
+		if (pendingUpdateMap.isEmpty())
+			return;
+
+		long now = System.currentTimeMillis();
+		List<Map.Entry<Integer, PendingCKUpdate>> dueList = pendingUpdateMap.entrySet().stream()
+			.filter(entry -> entry.getValue().nextAttemptAt() <= now)
+			.sorted(Comparator.comparingLong(entry -> entry.getValue().nextAttemptAt()))
+			.limit(batchSize)
+			.toList();
+
+		if (dueList.isEmpty())
+			return;
+
+		int shipped = 0;
+		for (Map.Entry<Integer, PendingCKUpdate> entry : dueList) {
+			PendingCKUpdate pending = entry.getValue();
+			try {
+				send(pending.update());
+				// a newer update received while shipping stays pending
+				pendingUpdateMap.remove(entry.getKey(), pending);
+				journalStale.set(true);
+				shipped++;
+			} catch (Exception e) {
+				int attempts = pending.attempts() + 1;
+				if (attempts >= maxAttempts) {
+					// permanently rejected (e.g. PCM deleted in CK), a newer update received meanwhile stays pending
+					if (pendingUpdateMap.remove(entry.getKey(), pending)) {
+						journalStale.set(true);
+						droppedCounter.increment();
+					}
+					logger.error("WSO2 - Dropped ProjectConnectorMapping:{} update for CK after {} attempts: {}",
+						entry.getKey(), attempts, pending.update(), e);
+					continue;
+				}
+
+				long backoffMs = Math.min(maxBackoffMs, flushIntervalMs * (1L << Math.min(attempts, 20)));
+				pendingUpdateMap.replace(entry.getKey(), pending,
+					new PendingCKUpdate(pending.update(), attempts, System.currentTimeMillis() + backoffMs));
+
+				logger.error("WSO2 - Failed to update ProjectConnectorMapping:{} In CK, attempt: {} retry in {} ms",
+					entry.getKey(), attempts, backoffMs, e);
+			}
+		}
+
+		logger.debug("WSO2 - Shipped {} of {} due ProjectConnectorMapping updates to CK", shipped, dueList.size());
+	}
+
+	// --------------------------------------------------------------------------------------------------------------
+	// Journal
+
+	private Path journalDirectory() {
+		return Path.of(assetsPath, "outbox");
+	}
+
+	private Path lockPath(Path journal) {
+		return journal.resolveSibling(journal.getFileName() + LOCK_SUFFIX);
+	}
+
+	private void lockJournal() {
+		try {
+			Files.createDirectories(journalPath.getParent());
+			journalLockChannel = FileChannel.open(lockPath(journalPath), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE);
+			if (journalLockChannel.tryLock() == null)
+				logger.warn("CK update outbox journal is locked by another instance with the id: {}", instanceId);
+		} catch (IOException e) {
+			logger.error("Failed to lock the CK update outbox journal", e);
+		}
+	}
+
+	private void unlockJournal() {
+		try {
+			if (journalLockChannel != null)
+				journalLockChannel.close();
+		} catch (IOException e) {
+			logger.error("Failed to unlock the CK update outbox journal", e);
+		}
+	}
+
+	/**
+	 * @return true if the journal was read
+	 */
+	private boolean loadJournal(Path journal) {
+		if (!Files.exists(journal))
+			return false;
+
+		try {
+			Map<Integer, ProjectConnectorMappingTO> updateMap = objectMapper.readValue(journal.toFile(),
+				new TypeReference<HashMap<Integer, ProjectConnectorMappingTO>>() {});
+			// updates of this instance are newer than the ones of an adopted journal
+			updateMap.forEach((pcmId, update) -> pendingUpdateMap.merge(pcmId, new PendingCKUpdate(update, 0, 0),
+				(pending, adopted) -> new PendingCKUpdate(coalesce(adopted.update(), pending.update()), 0, 0)));
+			logger.info("WSO2 - Loaded {} pending ProjectConnectorMapping updates for CK from {}", updateMap.size(),
+				journal.getFileName());
+			return true;
+		} catch (IOException e) {
+			logger.error("Failed to load the CK update outbox journal: {}", journal.getFileName(), e);
+			return false;
+		}
+	}
+
+	/**
+	 * Takes over the journals of the instances that are gone, their updates are persisted in the own journal
+	 * before the orphaned journal is deleted
+	 */
+	private void adoptOrphanedJournals() {
+		List<Path> orphanedJournals = new ArrayList<>();
+		try (Stream<Path> journalStream = Files.list(journalDirectory())) {
+			journalStream
+				.filter(path -> path.getFileName().toString().startsWith(JOURNAL_PREFIX)
+					&& path.getFileName().toString().endsWith(JOURNAL_SUFFIX)
+					&& !path.equals(journalPath))
+				.forEach(orphanedJournals::add);
+		} catch (IOException e) {
+			logger.error("Failed to list the CK update outbox journals", e);
+			return;
+		}
+
+		for (Path orphanedJournal : orphanedJournals) {
+			try (FileChannel lockChannel = FileChannel.open(lockPath(orphanedJournal), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE); FileLock lock = lockChannel.tryLock()) {
+				// held by a running instance
+				if (lock == null)
+					continue;
+
+				if (loadJournal(orphanedJournal)) {
+					persistJournal();
+					Files.deleteIfExists(orphanedJournal);
+				}
+				Files.deleteIfExists(lockPath(orphanedJournal));
+			} catch (IOException | OverlappingFileLockException e) {
+				logger.error("Failed to adopt the CK update outbox journal: {}", orphanedJournal.getFileName(), e);
+			}
+		}
+	}
+
+	private synchronized void persistJournal() {
+		Map<Integer, ProjectConnectorMappingTO> journal = new HashMap<>(pendingUpdateMap.size());
+		pendingUpdateMap.forEach((pcmId, pending) -> journal.put(pcmId, pending.update()));
+
+		try {
+			File journalDirectory = journalPath.getParent().toFile();
+			if (!journalDirectory.exists() && !journalDirectory.mkdirs()) {
+				throw new IOException("Failed to create directory: " + journalDirectory);
+			}
+
+			Path tempPath = journalPath.resolveSibling(journalPath.getFileName() + ".tmp");
+			objectMapper.writeValue(tempPath.toFile(), journal);
+			Files.move(tempPath, journalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			logger.error("Failed to persist the CK update outbox journal", e);
+		}
+	}
+}
+
+record PendingCKUpdate(ProjectConnectorMappingTO update, int attempts, long nextAttemptAt) {}
@@ -0,0 +1,12 @@
+package com.lti.knowledge.to;
+
+import java.util.List;
+
+/**
+ * State of a resumable chunked Excel upload, the uploadId becomes the fileId once the upload is finalized
+ *
+ * @param missingChunkCount number of the chunks not received yet, to be (re)sent before finalizing
+ * @param missingChunkRanges indices of the missing chunks as ranges, "4" or "6-9"
+ */
+public record ChunkedUploadTO(String uploadId, String fileName, long size, int chunkSize, int chunkCount,
+	int missingChunkCount, List<String> missingChunkRanges) {}
@@ -0,0 +1,10 @@
+package com.lti.knowledge.to;
+
+import java.util.List;
+
+/**
+ * Snapshot of the connector hub, the eTag changes only when the connectors change
+ *
+ * @param connectors copies owned by the caller, modifying them doesn't affect the snapshot
+ */
+public record ConnectorHubCatalogTO(String eTag, List<ConnectorHubTO> connectors) {}
@@ -0,0 +1,7 @@
+package com.lti.knowledge.to;
+
+/**
+ * Completion of a single Connector's sync within a Project level sync
+ */
+public record ConnectorSyncEventTO(int projectId, int projectConnectorId, String syncStatus, String syncMsg,
+	String lastSyncDate) {}
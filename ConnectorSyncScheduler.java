@@ -0,0 +1,199 @@
+package com.lti.knowledge.service.impl;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.lti.common.constants.CommonConstants;
+import com.lti.knowledge.config.IoExecutionConfig;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Dispatches connector syncs with a concurrency limit per Tool.
+ *
+ * <li>Latest syncs are dequeued before History syncs of the same Tool
+ * <li>A sync already queued for a PCM is reused instead of being queued again
+ * <li>Queue depth, running count, wait time and run time are published per Tool
+ * <li>Runs on virtual threads when the I/O execution mode is virtual, the per Tool limits still apply
+ */
+@Service
+public class ConnectorSyncScheduler {
+
+	private static final Logger logger = LoggerFactory.getLogger(ConnectorSyncScheduler.class);
+
+	public enum SyncType {
+		// declaration order is the dequeue priority
+		LATEST, HISTORY
+	}
+
+	@Autowired
+	@Qualifier("connectorSyncTaskExecutor")
+	private Executor connectorSyncTaskExecutor;
+
+	@Autowired
+	private IoExecutionConfig ioExecutionConfig;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${connector.sync.max-concurrency-per-tool:2}")
+	private int defaultMaxConcurrency;
+
+	// Tool name -> max concurrent syncs, e.g. {JIRA: 4, EXCEL: 2}
+	@Value("#{${connector.sync.max-concurrency:{:}}}")
+	private Map<String, Integer> toolMaxConcurrency;
+
+	private final Map<CommonConstants.Tool, ToolSyncQueue> toolSyncQueueMap = new EnumMap<>(CommonConstants.Tool.class);
+
+	private final AtomicLong sequence = new AtomicLong();
+
+	// connectorSyncTaskExecutor or virtual threads, based on the I/O execution mode
+	private Executor syncExecutor;
+
+	@PostConstruct
+	private void setup() {
+		syncExecutor = ioExecutionConfig.executor(connectorSyncTaskExecutor);
+
+		for (CommonConstants.Tool tool : CommonConstants.Tool.values()) {
+			int maxConcurrency = Math.max(1, toolMaxConcurrency.getOrDefault(tool.name(), defaultMaxConcurrency));
+			ToolSyncQueue toolSyncQueue = new ToolSyncQueue(tool, maxConcurrency);
+			toolSyncQueueMap.put(tool, toolSyncQueue);
+
+			Tags tags = Tags.of("tool", tool.name());
+			meterRegistry.gauge("connector.sync.queue.depth", tags, toolSyncQueue, ToolSyncQueue::queued);
+			meterRegistry.gauge("connector.sync.running", tags, toolSyncQueue, ToolSyncQueue::running);
+		}
+	}
+
+	/**
+	 * Queues the sync of the PCM, the returned future completes with the result of the sync task
+	 *
+	 * @param syncTask starts the sync and returns its completion, the concurrency slot is held till it completes
+	 */
+	public <T> CompletableFuture<T> submit(CommonConstants.Tool tool, int projectConnectorId, SyncType syncType,
+		Supplier<CompletableFuture<T>> syncTask) {
+		return toolSyncQueueMap.get(tool).submit(projectConnectorId, syncType, syncTask);
+	}
+
+	private final class ToolSyncQueue {
+
+		private final CommonConstants.Tool tool;
+		private final int maxConcurrency;
+
+		private final PriorityQueue<QueuedSync<?>> queue = new PriorityQueue<>(
+			Comparator.<QueuedSync<?>, SyncType>comparing(QueuedSync::syncType)
+				.thenComparingLong(QueuedSync::sequence));
+
+		// projectConnectorId + syncType -> queued sync, used to de-duplicate
+		private final Map<String, QueuedSync<?>> queuedSyncMap = new HashMap<>();
+
+		private int running = 0;
+
+		ToolSyncQueue(CommonConstants.Tool tool, int maxConcurrency) {
+			this.tool = tool;
+			this.maxConcurrency = maxConcurrency;
+		}
+
+		@SuppressWarnings("unchecked")
+		synchronized <T> CompletableFuture<T> submit(int projectConnectorId, SyncType syncType,
+			Supplier<CompletableFuture<T>> syncTask) {
+			String key = projectConnectorId + ":" + syncType;
+
+			QueuedSync<?> alreadyQueued = queuedSyncMap.get(key);
+			if (alreadyQueued != null) {
+				logger.info("Connector {} {} Sync is already queued", projectConnectorId, syncType);
+				return (CompletableFuture<T>) alreadyQueued.result();
+			}
+
+			QueuedSync<T> queuedSync = new QueuedSync<>(key, syncType, sequence.incrementAndGet(), System.nanoTime(),
+				syncTask, new CompletableFuture<>());
+			queue.add(queuedSync);
+			queuedSyncMap.put(key, queuedSync);
+
+			logger.debug("Connector {} {} Sync queued, {} queued: {} running: {}", projectConnectorId, syncType, tool,
+				queue.size(), running);
+
+			dispatch();
+			return queuedSync.result();
+		}
+
+		private synchronized void dispatch() {
+			while (running < maxConcurrency && !queue.isEmpty()) {
+				QueuedSync<?> queuedSync = queue.poll();
+				queuedSyncMap.remove(queuedSync.key());
+				running++;
+
+				try {
+					syncExecutor.execute(() -> run(queuedSync));
+				} catch (RuntimeException e) {
+					running--;
+					queuedSync.result().completeExceptionally(e);
+				}
+			}
+		}
+
+		private <T> void run(QueuedSync<T> queuedSync) {
+			long startTime = System.nanoTime();
+			timer("connector.sync.wait", queuedSync.syncType())
+				.record(startTime - queuedSync.queuedAtNanos(), TimeUnit.NANOSECONDS);
+
+			CompletableFuture<T> syncFuture;
+			try {
+				syncFuture = queuedSync.syncTask().get();
+			} catch (RuntimeException e) {
+				syncFuture = CompletableFuture.failedFuture(e);
+			}
+
+			syncFuture.whenComplete((result, throwable) -> {
+				timer("connector.sync.run", queuedSync.syncType())
+					.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+				release();
+
+				if (throwable != null) {
+					queuedSync.result().completeExceptionally(throwable);
+				} else {
+					queuedSync.result().complete(result);
+				}
+			});
+		}
+
+		private synchronized void release() {
+			running--;
+			dispatch();
+		}
+
+		private Timer timer(String name, SyncType syncType) {
+			return meterRegistry.timer(name, "tool", tool.name(), "type", syncType.name());
+		}
+
+		synchronized int queued() {
+			return queue.size();
+		}
+
+		synchronized int running() {
+			return running;
+		}
+	}
+}
+
+record QueuedSync<T>(String key, ConnectorSyncScheduler.SyncType syncType, long sequence, long queuedAtNanos,
+	Supplier<CompletableFuture<T>> syncTask, CompletableFuture<T> result) {}
@@ -0,0 +1,397 @@
+package com.lti.knowledge.service.impl;
+
+import static org.bouncycastle.util.encoders.Hex.toHexString;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lti.common.exception.CustomException;
+import com.lti.knowledge.to.ChunkedUploadTO;
+
+/**
+ * Resumable chunked upload of large Excel files, bypassing the multipart buffering.
+ *
+ * <li>Each chunk is written at its offset of the part file, in any order, and verified against its SHA-256
+ * <li>Received chunks are marked in a bitmap file (1 byte per chunk), an interrupted upload resends only the missing ones
+ * <li>Finalizing stages the file in the temp storage with the uploadId as its fileId, ready for the PCM save/update
+ * <li>Upload state is kept on the assets volume (excel/.uploads), any instance sharing it can receive the chunks
+ * <li>Finalizing claims the upload by renaming its session file, concurrent finalize requests stage it once
+ * <li>Expired uploads, and files left without a session (failed start, crash while finalizing), are purged by age
+ */
+@Service
+public class ExcelChunkedUploadService {
+
+	private static final Logger logger = LoggerFactory.getLogger(ExcelChunkedUploadService.class);
+
+	private static final String SESSION_SUFFIX = ".json";
+	private static final String PART_SUFFIX = ".part";
+	private static final String CHUNKS_SUFFIX = ".chunks";
+	private static final String FINALIZING_SUFFIX = ".finalizing";
+
+	private static final byte CHUNK_RECEIVED = 1;
+
+	@Value("${assets.path}")
+	private String assetsPath;
+
+	@Value("${excel.upload.chunked.max-chunk-bytes:8388608}")
+	private int maxChunkBytes;
+
+	@Value("${excel.upload.chunked.max-file-bytes:536870912}")
+	private long maxFileBytes;
+
+	// bounds the chunk bitmap, tiny chunks of a large file are rejected
+	@Value("${excel.upload.chunked.max-chunk-count:10000}")
+	private int maxChunkCount;
+
+	@Value("${excel.upload.chunked.ttl-minutes:60}")
+	private long uploadTtlMinutes;
+
+	@Autowired
+	private ExcelFileUploadServiceImpl excelFileUploadService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private Path uploadDirectory;
+
+	private ScheduledExecutorService expiryScheduledExecutorService = null;
+
+	@PostConstruct
+	private void setup() {
+		uploadDirectory = Path.of(assetsPath, "excel", ".uploads");
+
+		expiryScheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
+		expiryScheduledExecutorService.scheduleWithFixedDelay(this::purgeExpiredUploads, uploadTtlMinutes,
+			uploadTtlMinutes, TimeUnit.MINUTES);
+	}
+
+	@PreDestroy
+	private void shutdown() {
+		expiryScheduledExecutorService.shutdown();
+	}
+
+	public ChunkedUploadTO startChunkedUpload(String fileName, long size, int chunkSize) throws CustomException {
+		if (size <= 0 || size > maxFileBytes) {
+			throw new CustomException(HttpStatus.BAD_REQUEST, "Excel file size must be between 1 and " + maxFileBytes + " bytes");
+		}
+		if (chunkSize <= 0 || chunkSize > maxChunkBytes) {
+			throw new CustomException(HttpStatus.BAD_REQUEST, "Chunk size must be between 1 and " + maxChunkBytes + " bytes");
+		}
+
+		long chunkCount = (size + chunkSize - 1) / chunkSize;
+		if (chunkCount > maxChunkCount) {
+			throw new CustomException(HttpStatus.BAD_REQUEST,
+				"Chunk size must be at least " + ((size + maxChunkCount - 1) / maxChunkCount) + " bytes, at most "
+					+ maxChunkCount + " chunks are allowed");
+		}
+
+		String uploadId = UUID.randomUUID().toString();
+		ChunkedUpload upload = new ChunkedUpload(uploadId, fileName, size, chunkSize, (int) chunkCount,
+			System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(uploadTtlMinutes));
+
+		try {
+			Files.createDirectories(uploadDirectory);
+			Files.write(path(uploadId, CHUNKS_SUFFIX), new byte[(int) chunkCount], StandardOpenOption.CREATE_NEW);
+			Files.createFile(path(uploadId, PART_SUFFIX));
+			objectMapper.writeValue(path(uploadId, SESSION_SUFFIX).toFile(), upload);
+		} catch (IOException e) {
+			deleteUpload(uploadId);
+			throw new CustomException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to start the Excel file upload", e);
+		}
+
+		logger.debug("Chunked upload {} started: {} bytes in {} chunks", uploadId, size, chunkCount);
+		return toChunkedUploadTO(upload, missingChunks(upload));
+	}
+
+	/**
+	 * Writes the chunk at its offset, the chunk is marked received only if its content matches the checksum
+	 */
+	public ChunkedUploadTO uploadChunk(String uploadId, int chunkIndex, String sha256, InputStream content)
+		throws CustomException {
+		ChunkedUpload upload = getUpload(uploadId);
+		if (chunkIndex < 0 || chunkIndex >= upload.chunkCount()) {
+			throw new CustomException(HttpStatus.BAD_REQUEST, "Invalid chunk index: " + chunkIndex);
+		}
+
+		long position = (long) chunkIndex * upload.chunkSize();
+		int expectedBytes = (int) Math.min(upload.chunkSize(), upload.size() - position);
+
+		try {
+			MessageDigest md = MessageDigest.getInstance("SHA-256");
+			ByteBuffer buffer = ByteBuffer.allocate(expectedBytes);
+			readChunk(content, buffer, md);
+
+			if (!toHexString(md.digest()).equalsIgnoreCase(sha256)) {
+				throw new CustomException(HttpStatus.BAD_REQUEST, "Checksum mismatch for chunk: " + chunkIndex);
+			}
+
+			buffer.flip();
+			try (FileChannel part = FileChannel.open(path(uploadId, PART_SUFFIX), StandardOpenOption.WRITE)) {
+				while (buffer.hasRemaining()) {
+					position += part.write(buffer, position);
+				}
+				part.force(false);
+			}
+
+			try (FileChannel chunks = FileChannel.open(path(uploadId, CHUNKS_SUFFIX), StandardOpenOption.WRITE)) {
+				chunks.write(ByteBuffer.wrap(new byte[] { CHUNK_RECEIVED }), chunkIndex);
+			}
+		} catch (CustomException e) {
+			throw e;
+		} catch (IOException | NoSuchAlgorithmException e) {
+			throw new CustomException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to save the chunk: " + chunkIndex, e);
+		}
+
+		return toChunkedUploadTO(upload, missingChunks(upload));
+	}
+
+	public ChunkedUploadTO getChunkedUpload(String uploadId) throws CustomException {
+		ChunkedUpload upload = getUpload(uploadId);
+		return toChunkedUploadTO(upload, missingChunks(upload));
+	}
+
+	/**
+	 * Stages the assembled file in the temp storage
+	 *
+	 * @return fileId of the staged file, same as the uploadId
+	 */
+	public String finalizeChunkedUpload(String uploadId) throws CustomException {
+		ChunkedUpload upload = getUpload(uploadId);
+
+		MissingChunks missingChunks = missingChunks(upload);
+		if (missingChunks.count() > 0) {
+			throw new CustomException(HttpStatus.BAD_REQUEST,
+				"Excel file upload is incomplete, missing chunks: " + missingChunks.ranges());
+		}
+
+		Path partPath = path(uploadId, PART_SUFFIX);
+		Path stagedPath = excelFileUploadService.getExcelTempDirectory().toPath()
+			.resolve(uploadId + "." + FilenameUtils.getExtension(upload.fileName()));
+
+		// nothing that can fail without releasing the claim runs before the try
+		claimFinalization(uploadId);
+
+		try {
+			if (Files.size(partPath) != upload.size()) {
+				releaseFinalization(uploadId);
+				throw new CustomException(HttpStatus.BAD_REQUEST, "Excel file upload size mismatch");
+			}
+
+			// chunks were verified on arrival, the whole file hash is needed for the duplicate detection
+			String sha256 = excelFileUploadService.hashFileContent(partPath);
+			FileUtils.moveFile(partPath.toFile(), stagedPath.toFile());
+
+			excelFileUploadService.registerStagedExcelFile(uploadId, upload.fileName(), stagedPath, upload.size(), sha256);
+		} catch (CustomException e) {
+			throw e;
+		} catch (IOException | NoSuchAlgorithmException e) {
+			FileUtils.deleteQuietly(stagedPath.toFile());
+			releaseFinalization(uploadId);
+			throw new CustomException(HttpStatus.INTERNAL_SERVER_ERROR,
+				"Failed to save the uploaded Excel file: " + upload.fileName(), e);
+		}
+
+		deleteUpload(uploadId);
+		return uploadId;
+	}
+
+	public void cancelChunkedUpload(String uploadId) throws CustomException {
+		getUpload(uploadId);
+		deleteUpload(uploadId);
+	}
+
+	// --------------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Moves the session file aside, only one finalize request (on any instance) succeeds.
+	 * Chunk uploads and other finalize requests see the upload as missing from then on
+	 */
+	private void claimFinalization(String uploadId) throws CustomException {
+		Path finalizingPath = path(uploadId, FINALIZING_SUFFIX);
+		try {
+			Files.move(path(uploadId, SESSION_SUFFIX), finalizingPath, StandardCopyOption.ATOMIC_MOVE);
+			// the age of the claim is checked by the purge, not the age of the upload
+			Files.setLastModifiedTime(finalizingPath, FileTime.fromMillis(System.currentTimeMillis()));
+		} catch (NoSuchFileException e) {
+			throw new CustomException(HttpStatus.CONFLICT, "Excel file upload is already finalized: " + uploadId);
+		} catch (IOException e) {
+			throw new CustomException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to finalize the Excel file upload", e);
+		}
+	}
+
+	/**
+	 * Restores the session file after a failed finalization, so the upload can be finalized again
+	 */
+	private void releaseFinalization(String uploadId) {
+		try {
+			Files.move(path(uploadId, FINALIZING_SUFFIX), path(uploadId, SESSION_SUFFIX),
+				StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			logger.error("Failed to release the chunked upload: {}", uploadId, e);
+		}
+	}
+
+	private void readChunk(InputStream content, ByteBuffer buffer, MessageDigest md) throws IOException, CustomException {
+		try (InputStream in = new BufferedInputStream(content)) {
+			byte[] bytes = buffer.array();
+			int read;
+			while (buffer.hasRemaining() && (read = in.read(bytes, buffer.position(), buffer.remaining())) > 0) {
+				md.update(bytes, buffer.position(), read);
+				buffer.position(buffer.position() + read);
+			}
+
+			if (buffer.hasRemaining() || in.read() != -1) {
+				throw new CustomException(HttpStatus.BAD_REQUEST,
+					"Chunk size mismatch, expected " + buffer.capacity() + " bytes");
+			}
+		}
+	}
+
+	private ChunkedUpload getUpload(String uploadId) throws CustomException {
+		Path sessionPath = path(uploadId, SESSION_SUFFIX);
+		if (!isUploadId(uploadId) || !Files.exists(sessionPath)) {
+			throw new CustomException(HttpStatus.BAD_REQUEST, "Excel file upload is missing/expired: " + uploadId);
+		}
+
+		try {
+			ChunkedUpload upload = objectMapper.readValue(sessionPath.toFile(), ChunkedUpload.class);
+			if (upload.hasExpired()) {
+				deleteUpload(uploadId);
+				throw new CustomException(HttpStatus.BAD_REQUEST, "Excel file upload is missing/expired: " + uploadId);
+			}
+			return upload;
+		} catch (IOException e) {
+			throw new CustomException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to read the Excel file upload", e);
+		}
+	}
+
+	/**
+	 * Missing chunks as ranges of consecutive indices, an upload in progress has few of them whatever its size
+	 */
+	private MissingChunks missingChunks(ChunkedUpload upload) throws CustomException {
+		try {
+			byte[] chunks = Files.readAllBytes(path(upload.uploadId(), CHUNKS_SUFFIX));
+			List<String> ranges = new ArrayList<>();
+			int count = 0;
+			int rangeStart = -1;
+			for (int i = 0; i <= upload.chunkCount(); i++) {
+				boolean missing = i < upload.chunkCount() && (i >= chunks.length || chunks[i] != CHUNK_RECEIVED);
+				if (missing) {
+					count++;
+					if (rangeStart < 0)
+						rangeStart = i;
+				} else if (rangeStart >= 0) {
+					ranges.add(rangeStart == i - 1 ? String.valueOf(rangeStart) : rangeStart + "-" + (i - 1));
+					rangeStart = -1;
+				}
+			}
+			return new MissingChunks(count, ranges);
+		} catch (IOException e) {
+			throw new CustomException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to read the Excel file upload", e);
+		}
+	}
+
+	private void purgeExpiredUploads() {
+		if (!Files.isDirectory(uploadDirectory))
+			return;
+
+		long orphanedBeforeMillis = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(uploadTtlMinutes);
+		try (Stream<Path> uploadStream = Files.list(uploadDirectory)) {
+			uploadStream.forEach(path -> {
+				String filename = path.getFileName().toString();
+				try {
+					if (filename.endsWith(SESSION_SUFFIX)) {
+						ChunkedUpload upload = objectMapper.readValue(path.toFile(), ChunkedUpload.class);
+						if (upload.hasExpired()) {
+							logger.debug("Removing expired chunked upload: {}", upload.uploadId());
+							deleteUpload(upload.uploadId());
+						}
+					} else if (isOrphaned(path, orphanedBeforeMillis)) {
+						logger.debug("Removing orphaned chunked upload file: {}", filename);
+						Files.deleteIfExists(path);
+					}
+				} catch (IOException e) {
+					logger.error("Failed to purge the chunked upload: {}", filename, e);
+				}
+			});
+		} catch (Exception e) {
+			logger.error("Failed to purge the expired chunked uploads", e);
+		}
+	}
+
+	/**
+	 * A part/chunks file without a session or a finalization claim, or a claim left by a crashed finalization,
+	 * not modified within the upload TTL
+	 */
+	private boolean isOrphaned(Path path, long orphanedBeforeMillis) throws IOException {
+		String filename = path.getFileName().toString();
+		String uploadId = FilenameUtils.getBaseName(filename);
+		if (!filename.endsWith(FINALIZING_SUFFIX)
+			&& (Files.exists(path(uploadId, SESSION_SUFFIX)) || Files.exists(path(uploadId, FINALIZING_SUFFIX))))
+			return false;
+
+		return Files.getLastModifiedTime(path).toMillis() < orphanedBeforeMillis;
+	}
+
+	private void deleteUpload(String uploadId) {
+		FileUtils.deleteQuietly(path(uploadId, PART_SUFFIX).toFile());
+		FileUtils.deleteQuietly(path(uploadId, CHUNKS_SUFFIX).toFile());
+		FileUtils.deleteQuietly(path(uploadId, SESSION_SUFFIX).toFile());
+		FileUtils.deleteQuietly(path(uploadId, FINALIZING_SUFFIX).toFile());
+	}
+
+	private boolean isUploadId(String uploadId) {
+		// the uploadId becomes the fileId of the staged file
+		return ExcelFileIndex.isFileId(uploadId);
+	}
+
+	private Path path(String uploadId, String suffix) {
+		return uploadDirectory.resolve(uploadId + suffix);
+	}
+
+	private ChunkedUploadTO toChunkedUploadTO(ChunkedUpload upload, MissingChunks missingChunks) {
+		return new ChunkedUploadTO(upload.uploadId(), upload.fileName(), upload.size(), upload.chunkSize(),
+			upload.chunkCount(), missingChunks.count(), missingChunks.ranges());
+	}
+
+	private record MissingChunks(int count, List<String> ranges) {}
+}
+
+record ChunkedUpload(String uploadId, String fileName, long size, int chunkSize, int chunkCount,
+	long expiresAtMillis) {
+
+	boolean hasExpired() {
+		return System.currentTimeMillis() >= expiresAtMillis;
+	}
+}
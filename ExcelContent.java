@@ -0,0 +1,11 @@
+package com.lti.knowledge.service.impl;
+
+/**
+ * Stored Excel content, looked up by the {@link ExcelContentStore} for duplicate detection
+ */
+record ExcelContent(ExcelContentKey key) {
+
+	String sha256() {
+		return key.sha256();
+	}
+}
@@ -0,0 +1,6 @@
+package com.lti.knowledge.service.impl;
+
+/**
+ * Identity of the Excel file content, files with the same key share the stored blob
+ */
+record ExcelContentKey(long size, String sha256) {}
@@ -0,0 +1,191 @@
+package com.lti.knowledge.service.impl;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Content index of the Excel files, keyed by size and SHA-256.
+ *
+ * <li>Content is hashed once while the upload is streamed to the temp storage, kept with the staged file
+ * <li>Duplicate detection is a lookup, the storage directory is never scanned
+ * <li>Committed files with the same content share one blob (excel/.blobs), {fileId}.{ext} is a hard link to it
+ * <li>Committed entries are journaled (excel/.meta/content-index.log) and compacted on startup
+ */
+@Service
+public class ExcelContentStore {
+
+	private static final Logger logger = LoggerFactory.getLogger(ExcelContentStore.class);
+
+	private static final String JOURNAL_COMMIT = "C";
+	private static final String JOURNAL_DELETE = "D";
+
+	@Value("${assets.path}")
+	private String assetsPath;
+
+	private Path blobDirectory;
+	private Path journalPath;
+
+	// fileId -> content of the committed files
+	private final Map<String, ExcelContent> contentMap = new ConcurrentHashMap<>();
+
+	// size + hash -> committed fileIds sharing the blob
+	private final Map<ExcelContentKey, Set<String>> committedContentIndex = new HashMap<>();
+
+	@PostConstruct
+	private void setup() {
+		Path excelDirectory = Path.of(assetsPath, "excel");
+		blobDirectory = excelDirectory.resolve(".blobs");
+		journalPath = excelDirectory.resolve(".meta").resolve("content-index.log");
+
+		loadJournal();
+	}
+
+	ExcelContent get(String fileId) {
+		return contentMap.get(fileId);
+	}
+
+	/**
+	 * Records the content of a file committed before the index existed
+	 */
+	synchronized void registerCommitted(String fileId, long size, String sha256) {
+		ExcelContentKey key = new ExcelContentKey(size, sha256);
+		contentMap.put(fileId, new ExcelContent(key));
+		committedContentIndex.computeIfAbsent(key, k -> new HashSet<>()).add(fileId);
+		appendJournal(JOURNAL_COMMIT, fileId, key);
+	}
+
+	/**
+	 * Links the committed file to the blob of its content, the first file with the content becomes the blob
+	 */
+	synchronized void commit(String fileId, ExcelContentKey key, Path committedFile) {
+		Path blobPath = blobPath(key);
+		try {
+			Files.createDirectories(blobDirectory);
+			if (Files.exists(blobPath)) {
+				Path linkPath = committedFile.resolveSibling(committedFile.getFileName() + ".link");
+				Files.deleteIfExists(linkPath);
+				Files.createLink(linkPath, blobPath);
+				Files.move(linkPath, committedFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				logger.debug("Excel file {} shares the stored content {}", fileId, key.sha256());
+			} else {
+				Files.createLink(blobPath, committedFile);
+			}
+		} catch (UnsupportedOperationException | FileSystemException e) {
+			// hard links are not supported by the storage, the file keeps its own copy
+			logger.debug("Excel file {} is stored without de-duplication", fileId, e);
+		} catch (IOException e) {
+			logger.error("Failed to de-duplicate the Excel file: {}", fileId, e);
+		}
+
+		contentMap.put(fileId, new ExcelContent(key));
+		committedContentIndex.computeIfAbsent(key, k -> new HashSet<>()).add(fileId);
+		appendJournal(JOURNAL_COMMIT, fileId, key);
+	}
+
+	/**
+	 * Drops the file from the index, the blob is deleted with its last file
+	 */
+	synchronized void remove(String fileId) {
+		ExcelContent content = contentMap.remove(fileId);
+		if (content == null)
+			return;
+
+		Set<String> fileIds = committedContentIndex.get(content.key());
+		if (fileIds != null) {
+			fileIds.remove(fileId);
+			if (fileIds.isEmpty()) {
+				committedContentIndex.remove(content.key());
+				try {
+					Files.deleteIfExists(blobPath(content.key()));
+				} catch (IOException e) {
+					logger.error("Failed to delete the Excel file blob: {}", content.key().sha256(), e);
+				}
+			}
+		}
+		appendJournal(JOURNAL_DELETE, fileId, content.key());
+	}
+
+	private Path blobPath(ExcelContentKey key) {
+		return blobDirectory.resolve(key.sha256() + "-" + key.size());
+	}
+
+	// --------------------------------------------------------------------------------------------------------------
+	// Journal
+
+	private void loadJournal() {
+		if (!Files.exists(journalPath))
+			return;
+
+		try {
+			List<String> lines = Files.readAllLines(journalPath, StandardCharsets.UTF_8);
+			for (String line : lines) {
+				String[] parts = line.split(" ");
+				if (parts.length != 4)
+					continue;
+
+				ExcelContentKey key = new ExcelContentKey(Long.parseLong(parts[2]), parts[3]);
+				if (JOURNAL_COMMIT.equals(parts[0])) {
+					contentMap.put(parts[1], new ExcelContent(key));
+					committedContentIndex.computeIfAbsent(key, k -> new HashSet<>()).add(parts[1]);
+				} else if (JOURNAL_DELETE.equals(parts[0])) {
+					contentMap.remove(parts[1]);
+					Set<String> fileIds = committedContentIndex.get(key);
+					if (fileIds != null && fileIds.remove(parts[1]) && fileIds.isEmpty()) {
+						committedContentIndex.remove(key);
+					}
+				}
+			}
+
+			compactJournal();
+			logger.info("Loaded Excel content index: {} files, {} distinct contents", contentMap.size(),
+				committedContentIndex.size());
+		} catch (IOException | RuntimeException e) {
+			logger.error("Failed to load the Excel content index, duplicate detection falls back to hashing", e);
+			contentMap.clear();
+			committedContentIndex.clear();
+		}
+	}
+
+	private void compactJournal() throws IOException {
+		Path tempPath = journalPath.resolveSibling(journalPath.getFileName() + ".tmp");
+		try (BufferedWriter writer = Files.newBufferedWriter(tempPath, StandardCharsets.UTF_8)) {
+			for (Map.Entry<String, ExcelContent> entry : contentMap.entrySet()) {
+				writer.write(journalLine(JOURNAL_COMMIT, entry.getKey(), entry.getValue().key()));
+			}
+		}
+		Files.move(tempPath, journalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private void appendJournal(String operation, String fileId, ExcelContentKey key) {
+		try {
+			Files.createDirectories(journalPath.getParent());
+			Files.writeString(journalPath, journalLine(operation, fileId, key), StandardCharsets.UTF_8,
+				StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+		} catch (IOException e) {
+			logger.error("Failed to journal the Excel content index: {}", fileId, e);
+		}
+	}
+
+	private String journalLine(String operation, String fileId, ExcelContentKey key) {
+		return operation + " " + fileId + " " + key.size() + " " + key.sha256() + "\n";
+	}
+}
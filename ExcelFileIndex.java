@@ -0,0 +1,185 @@
+package com.lti.knowledge.service.impl;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.io.FilenameUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * fileId -> Path of the committed Excel files, so lookups never list the storage directory.
+ *
+ * <li>Committed files are indexed once on startup, then maintained on commit/delete
+ * <li>Files committed by another instance sharing the volume are resolved from their directory on first lookup,
+ * ids not found are not looked up again for excel.index.miss.ttl-seconds
+ * <li>Indexed files deleted by another instance are dropped from the index on their next lookup
+ * <li>File ids are generated UUIDs, any other id is rejected before it reaches a path or a glob
+ * <li>With excel.storage.sharded new files are committed to excel/{id[0..2]}/{id[2..4]}/{fileId}.{ext},
+ * files of the flat layout stay where they are and are still resolved
+ */
+@Service
+public class ExcelFileIndex {
+
+	private static final Logger logger = LoggerFactory.getLogger(ExcelFileIndex.class);
+
+	// excel/{shard}/{shard}/{file}
+	private static final int SHARDED_LAYOUT_DEPTH = 3;
+	private static final int SHARD_PREFIX_LENGTH = 2;
+
+	// expired misses are swept once there are more, a lookup storm of unknown ids can't grow it unbounded
+	private static final int MISSED_FILE_ID_SWEEP_SIZE = 10_000;
+
+	@Value("${assets.path}")
+	private String assetsPath;
+
+	@Value("${excel.storage.sharded:false}")
+	private boolean sharded;
+
+	@Value("${excel.index.miss.ttl-seconds:30}")
+	private long missTtlSeconds;
+
+	private Path excelDirectory;
+
+	// fileId -> committed file
+	private final Map<String, Path> committedPathMap = new ConcurrentHashMap<>();
+
+	// fileId -> System.nanoTime() until which the file is known to be missing
+	private final Map<String, Long> missedFileIdMap = new ConcurrentHashMap<>();
+
+	@PostConstruct
+	private void setup() {
+		excelDirectory = Path.of(assetsPath, "excel");
+		if (!Files.isDirectory(excelDirectory))
+			return;
+
+		try (Stream<Path> pathStream = Files.walk(excelDirectory, SHARDED_LAYOUT_DEPTH)) {
+			pathStream
+				.filter(Files::isRegularFile)
+				.filter(path -> !isInHiddenDirectory(path))
+				.forEach(path -> committedPathMap.put(fileId(path), path));
+
+			logger.info("Indexed {} Excel files", committedPathMap.size());
+		} catch (IOException e) {
+			logger.error("Failed to index the Excel storage directory", e);
+		}
+	}
+
+	/**
+	 * Excel storage path of the file, based on the configured layout
+	 */
+	Path committedPath(String fileId, String extension) {
+		requireFileId(fileId);
+		String filename = fileId + FilenameUtils.EXTENSION_SEPARATOR + extension;
+		if (!sharded || fileId.length() < SHARD_PREFIX_LENGTH * 2)
+			return excelDirectory.resolve(filename);
+
+		return excelDirectory
+			.resolve(fileId.substring(0, SHARD_PREFIX_LENGTH))
+			.resolve(fileId.substring(SHARD_PREFIX_LENGTH, SHARD_PREFIX_LENGTH * 2))
+			.resolve(filename);
+	}
+
+	Path getCommitted(String fileId) {
+		if (!isFileId(fileId))
+			return null;
+
+		Path path = committedPathMap.get(fileId);
+		if (path != null) {
+			if (Files.isRegularFile(path))
+				return path;
+			// deleted by another instance
+			committedPathMap.remove(fileId, path);
+		}
+
+		long now = System.nanoTime();
+		Long missedUntil = missedFileIdMap.get(fileId);
+		if (missedUntil != null && now - missedUntil < 0)
+			return null;
+
+		// committed by another instance, only the directories it can be placed in are looked up
+		path = find(committedPath(fileId, "*").getParent(), fileId);
+		if (path == null && sharded)
+			path = find(excelDirectory, fileId);
+
+		if (path != null) {
+			missedFileIdMap.remove(fileId);
+			committedPathMap.put(fileId, path);
+		} else {
+			missed(fileId, now);
+		}
+		return path;
+	}
+
+	void commit(String fileId, Path path) {
+		missedFileIdMap.remove(fileId);
+		committedPathMap.put(fileId, path);
+	}
+
+	void remove(String fileId) {
+		committedPathMap.remove(fileId);
+	}
+
+	/**
+	 * @return true if the id is a file id as generated on upload, a UUID in its canonical form
+	 */
+	static boolean isFileId(String fileId) {
+		try {
+			return fileId != null && UUID.fromString(fileId).toString().equals(fileId);
+		} catch (IllegalArgumentException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Guards the paths built from a file id, the id must not be able to leave the Excel storage directory
+	 */
+	static void requireFileId(String fileId) {
+		if (!isFileId(fileId))
+			throw new IllegalArgumentException("Invalid Excel file id: " + fileId);
+	}
+
+	private void missed(String fileId, long now) {
+		if (missedFileIdMap.size() >= MISSED_FILE_ID_SWEEP_SIZE)
+			missedFileIdMap.values().removeIf(missedUntil -> now - missedUntil >= 0);
+		missedFileIdMap.put(fileId, now + TimeUnit.SECONDS.toNanos(missTtlSeconds));
+	}
+
+	private Path find(Path directory, String fileId) {
+		if (!Files.isDirectory(directory))
+			return null;
+
+		try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory, fileId + ".*")) {
+			for (Path path : directoryStream) {
+				if (Files.isRegularFile(path))
+					return path;
+			}
+		} catch (IOException e) {
+			logger.error("Failed to look up the Excel file: {}", fileId, e);
+		}
+		return null;
+	}
+
+	private boolean isInHiddenDirectory(Path path) {
+		for (Path segment : excelDirectory.relativize(path.getParent())) {
+			if (segment.toString().startsWith("."))
+				return true;
+		}
+		return false;
+	}
+
+	private String fileId(Path path) {
+		return FilenameUtils.getBaseName(path.getFileName().toString());
+	}
+}
@@ -0,0 +1,15 @@
+package com.lti.knowledge.service.impl;
+
+import java.util.List;
+
+import com.lti.knowledge.util.ExcelWorkbookUtils.SheetMetadata;
+
+/**
+ * Sheet metadata of a committed Excel file, kept by the {@link ExcelFileMetadataStore}
+ */
+record ExcelFileMetadata(String fileId, String sha256, long size, List<SheetMetadata> sheets) {
+
+	String sheetNames() {
+		return String.join(",", sheets.stream().map(SheetMetadata::name).toList());
+	}
+}
@@ -0,0 +1,118 @@
+package com.lti.knowledge.service.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lti.knowledge.util.ExcelWorkbookUtils;
+import com.lti.knowledge.util.ExcelWorkbookUtils.SheetMetadata;
+
+/**
+ * Sheet metadata of the committed Excel files.
+ *
+ * <li>Built once when the file is committed to the final storage, committed files never change
+ * <li>Persisted as a sidecar next to the file (excel/.meta/{fileId}.meta.json), held in memory once read
+ */
+@Service
+public class ExcelFileMetadataStore {
+
+	private static final Logger logger = LoggerFactory.getLogger(ExcelFileMetadataStore.class);
+
+	private static final String METADATA_FILE_SUFFIX = ".meta.json";
+
+	@Value("${assets.path}")
+	private String assetsPath;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private Path metadataDirectory;
+
+	// fileId -> metadata
+	private final Map<String, ExcelFileMetadata> metadataMap = new ConcurrentHashMap<>();
+
+	@PostConstruct
+	private void setup() {
+		metadataDirectory = Path.of(assetsPath, "excel", ".meta");
+	}
+
+	/**
+	 * Metadata of the committed file, null if it was never built
+	 */
+	ExcelFileMetadata get(String fileId) {
+		if (!ExcelFileIndex.isFileId(fileId))
+			return null;
+
+		ExcelFileMetadata metadata = metadataMap.get(fileId);
+		if (metadata != null)
+			return metadata;
+
+		Path metadataPath = metadataPath(fileId);
+		if (!Files.exists(metadataPath))
+			return null;
+
+		try {
+			metadata = objectMapper.readValue(metadataPath.toFile(), ExcelFileMetadata.class);
+			metadataMap.put(fileId, metadata);
+			return metadata;
+		} catch (IOException e) {
+			logger.error("Failed to read the Excel file metadata: {}", fileId, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Reads the sheets of the committed file and persists its metadata
+	 */
+	ExcelFileMetadata build(String fileId, Path path, String sha256) throws IOException {
+		return save(fileId, path, sha256, ExcelWorkbookUtils.readSheetMetadata(path));
+	}
+
+	/**
+	 * Persists the metadata of the committed file from the sheets already read while it was staged
+	 */
+	ExcelFileMetadata save(String fileId, Path path, String sha256, List<SheetMetadata> sheets) throws IOException {
+		ExcelFileMetadata metadata = new ExcelFileMetadata(fileId, sha256, Files.size(path), sheets);
+
+		File directory = metadataDirectory.toFile();
+		if (!directory.exists() && !directory.mkdirs()) {
+			throw new IOException("Failed to create directory: " + directory);
+		}
+
+		Path metadataPath = metadataPath(fileId);
+		Path tempPath = metadataPath.resolveSibling(metadataPath.getFileName() + ".tmp");
+		objectMapper.writeValue(tempPath.toFile(), metadata);
+		Files.move(tempPath, metadataPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+		metadataMap.put(fileId, metadata);
+		return metadata;
+	}
+
+	void remove(String fileId) {
+		metadataMap.remove(fileId);
+		try {
+			Files.deleteIfExists(metadataPath(fileId));
+		} catch (IOException e) {
+			logger.error("Failed to delete the Excel file metadata: {}", fileId, e);
+		}
+	}
+
+	private Path metadataPath(String fileId) {
+		ExcelFileIndex.requireFileId(fileId);
+		return metadataDirectory.resolve(fileId + METADATA_FILE_SUFFIX);
+	}
+}
@@ -4,41 +4,43 @@ import static org.bouncycastle.util.encoders.Hex.toHexString;
 
 import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.file.FileVisitOption;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.ss.usermodel.WorkbookFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeanUtils;
@@ -50,20 +52,23 @@ import org.springframework.data.util.Pair;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
-import org.springframework.util.MultiValueMap;
-import org.springframework.util.MultiValueMapAdapter;
 import org.springframework.util.ObjectUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.lti.common.constants.CommonConstants;
 import com.lti.common.exception.CustomException;
-import com.lti.common.exception.CustomRuntimeException;
 import com.lti.common.to.ExcelFileDetailTO;
+import com.lti.common.to.FieldMappingTO;
 import com.lti.common.to.ProjectConnectorMappingTO;
+import com.lti.knowledge.config.IoExecutionConfig;
 import com.lti.knowledge.dao.ExcelFileDetailDAO;
 import com.lti.knowledge.dao.ProjectConnectorMappingDAO;
 import com.lti.knowledge.entities.ExcelFileDetailEntity;
 import com.lti.knowledge.entities.ProjectConnectorMappingEntity;
+import com.lti.knowledge.util.ExcelWorkbookUtils;
+import com.lti.knowledge.util.ExcelWorkbookUtils.SheetMetadata;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Service
 public class ExcelFileUploadServiceImpl {
@@ -77,16 +82,44 @@ public class ExcelFileUploadServiceImpl {
 	@Autowired
 	private ProjectConnectorMappingDAO pcmDao;
 
+	@Autowired
+	private ExcelFileMetadataStore excelFileMetadataStore;
+
+	@Autowired
+	private ExcelContentStore excelContentStore;
+
+	@Autowired
+	private ExcelFileIndex excelFileIndex;
+
+	@Autowired
+	private ExcelStagingRegistry excelStagingRegistry;
+
+	@Autowired
+	private IoExecutionConfig ioExecutionConfig;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
 	private String excelDirectoryUrl;
 	private String excelTempDirectoryUrl;
 
-	private static final int EXCEL_TEMP_FILE_PURGE_THREAD_ALIVE_TIME_MS = 30 * 60 * 1000;
 	private static final int EXCEL_TEMP_FILE_PURGE_SCHEDULE_MS = 20 * 60 * 1000;
+	private static final long EXCEL_STAGING_TRANSFER_CHUNK_BYTES = 1024 * 1024;
+
+	private Thread purgingThread = null;
 
-	// uuid -> [filename, scheduledTask]
-	// holds file uploaded in temp directory
-	private Map<String, ExcelFilePurgeTask> excelTempFileStagedMap = null;
-	private ScheduledThreadPoolExecutor purgingScheduledExecutorService = null;
+	@Value("${excel.upload.staging-parallelism:4}")
+	private int stagingParallelism;
+
+	// platform pool, unless the I/O execution mode is virtual
+	private ExecutorService stagingThreadPool = null;
+	private Executor stagingExecutor = null;
+
+	// fileId -> sheets of the staged file read by the validation, reused when it is committed
+	private final Map<String, List<SheetMetadata>> validatedSheetMap = new ConcurrentHashMap<>();
+
+	// mapped columns every selected sheet must have, the remaining mapped columns are looked up across the sheets
+	private static final Set<String> EXCEL_IDENTITY_FIELD_KEYS = Set.of("id", "type");
 
 	private static final Logger logger = LoggerFactory.getLogger(ExcelFileUploadServiceImpl.class);
 
@@ -95,17 +128,31 @@ public class ExcelFileUploadServiceImpl {
 		excelDirectoryUrl = assetsPath + "/excel/";
 		excelTempDirectoryUrl = excelDirectoryUrl + "/.tmp/";
 
-		purgingScheduledExecutorService = (ScheduledThreadPoolExecutor) Executors.newScheduledThreadPool(1);
-		purgingScheduledExecutorService.setKeepAliveTime(EXCEL_TEMP_FILE_PURGE_THREAD_ALIVE_TIME_MS,
-			TimeUnit.MILLISECONDS);
-		purgingScheduledExecutorService.allowCoreThreadTimeOut(true);
-		purgingScheduledExecutorService.setRemoveOnCancelPolicy(true);
+		meterRegistry.gauge("excel.upload.staged.files", excelStagingRegistry, ExcelStagingRegistry::stagedCount);
+		meterRegistry.gauge("excel.upload.staged.bytes", excelStagingRegistry, ExcelStagingRegistry::stagedBytes);
 
-		purgingScheduledExecutorService.execute(this::purgeAllTempExcelFilesOnStartup);
+		purgingThread = new Thread(this::purgeTempExcelFiles, "excel-temp-file-purger");
+		purgingThread.setDaemon(true);
+		purgingThread.start();
+
+		if (ioExecutionConfig.isVirtual()) {
+			stagingExecutor = ioExecutionConfig.executor(null);
+		} else {
+			stagingThreadPool = Executors.newFixedThreadPool(Math.max(1, stagingParallelism));
+			stagingExecutor = stagingThreadPool;
+		}
 
 		migrateFromPcmToExcelFileDetailsTable();
 	}
 
+	@PreDestroy
+	private void shutdown() {
+		purgingThread.interrupt();
+		if (stagingThreadPool != null) {
+			stagingThreadPool.shutdown();
+		}
+	}
+
 	// TODO: Remove the code in future release
 	private void migrateFromPcmToExcelFileDetailsTable() throws IOException {
 		if (!excelDirectoryExists()) {
@@ -140,7 +187,9 @@ public class ExcelFileUploadServiceImpl {
 			.filter(path -> fileNameMap.containsKey(path.toFile().getName()))
 			.forEach(path -> {
 				try {
-					Files.move(path, path.resolveSibling(fileNameMap.get(path.toFile().getName())));
+					Path migratedPath = path.resolveSibling(fileNameMap.get(path.toFile().getName()));
+					Files.move(path, migratedPath);
+					excelFileIndex.commit(filename(migratedPath), migratedPath);
 				} catch (IOException e) {
 					fileList.close();
 					throw new RuntimeException(e);
@@ -160,6 +209,7 @@ public class ExcelFileUploadServiceImpl {
 		if (!pcmTo.getToolName().equals(CommonConstants.Tool.EXCEL.label))
 			return;
 
+		validateFileIds(pcmTo.getExcelFiles().stream().map(ExcelFileDetailTO::getFileId).toList());
 		Set<String> idSet = new HashSet<>(pcmTo.getExcelFiles().size());
 		pcmTo.setExcelFiles(
 			pcmTo.getExcelFiles().stream().filter(f -> idSet.add(f.getFileId())).collect(Collectors.toList())
@@ -169,7 +219,7 @@ public class ExcelFileUploadServiceImpl {
 		// file is bound to be present in the map
 		checkExcelFileIsStagedInMap(pcmTo.getExcelFiles());
 
-		checkDuplicateFileUpload(pcmTo.getExcelFiles(), excelTempDirectoryInstance());
+		checkDuplicateFileUpload(pcmTo.getExcelFiles());
 
 		List<ExcelFileDetailEntity> fileDetailEntities = new ArrayList<>(pcmTo.getExcelFiles().size());
 		for (ExcelFileDetailTO fileDetail : pcmTo.getExcelFiles()) {
@@ -187,6 +237,7 @@ public class ExcelFileUploadServiceImpl {
 		if (!pcmTo.getToolName().equals(CommonConstants.Tool.EXCEL.label))
 			return null;
 
+		validateFileIds(pcmTo.getExcelFiles().stream().map(ExcelFileDetailTO::getFileId).toList());
 		Set<String> idSet = new HashSet<>(pcmTo.getExcelFiles().size());
 		pcmTo.setExcelFiles(
 			pcmTo.getExcelFiles().stream().filter(f -> idSet.add(f.getFileId())).collect(Collectors.toList())
@@ -216,7 +267,8 @@ public class ExcelFileUploadServiceImpl {
 				// set the filename to handle any arbitrary input filename
 				fileDetail.setFileName(dbFileDetailEntity.getFileName());
 
-				if (fileDetail.getSheets().equals(dbFileDetailEntity.getSheets())) {
+				// order/spacing of the selection doesn't change what is synced
+				if (sheetSet(fileDetail.getSheets()).equals(sheetSet(dbFileDetailEntity.getSheets()))) {
 					fileDetailEntity.setChangedDate(dbFileDetailEntity.getChangedDate());
 				} else {
 					fileDetailEntity.setChangedDate(null);
@@ -238,48 +290,136 @@ public class ExcelFileUploadServiceImpl {
 			fileDetailEntities.add(fileDetailEntity);
 		}
 
-		checkDuplicateFileUpload(pcmTo.getExcelFiles(), excelDirectoryInstance());
+		carryOverChangedDateOfReplacedFiles(fileDetailEntities, inputExcelFileToSaveMap, dbExcelFileToDeleteMap);
+
+		checkDuplicateFileUpload(pcmTo.getExcelFiles());
 
 		pcmEntityToSave.setExcelFileDetailEntityList(fileDetailEntities);
 
 		return Pair.of(inputExcelFileToSaveMap.keySet(), dbExcelFileToDeleteMap.keySet());
 	}
 
-	void checkDuplicateFileUpload(List<ExcelFileDetailTO> fileDetailList, File directory) throws CustomException {
-		Map<String, String> fileIdToNameMap = fileDetailList.stream()
-			.collect(Collectors.toMap(ExcelFileDetailTO::getFileId, ExcelFileDetailTO::getFileName));
+	/**
+	 * A re-uploaded workbook replacing the file with the same name keeps its changedDate,
+	 * if the same sheets are selected and none of them changed, so the sync skips it
+	 */
+	private void carryOverChangedDateOfReplacedFiles(List<ExcelFileDetailEntity> fileDetailEntities,
+		Map<String, ExcelFileDetailTO> newFileMap, Map<String, ExcelFileDetailEntity> removedFileMap) {
 
-		try (Stream<Path> pathStream = Files.find(directory.toPath(), 2,
-			(path, attr) -> fileIdToNameMap.containsKey(filename(path)), FileVisitOption.FOLLOW_LINKS)) {
+		if (newFileMap.isEmpty() || removedFileMap.isEmpty())
+			return;
 
-			MultiValueMap<Long, Object> sizeToHashMap = new MultiValueMapAdapter<>(new HashMap<>(fileDetailList.size()));
+		Map<String, ExcelFileDetailEntity> removedFileByNameMap = removedFileMap.values().stream()
+			.filter(removedFile -> removedFile.getChangedDate() != null)
+			.collect(Collectors.toMap(ExcelFileDetailEntity::getFileName, removedFile -> removedFile,
+				(first, second) -> first));
 
-			pathStream.sorted(Comparator.comparingLong(p -> p.toFile().lastModified())).forEach(path -> {
-				try {
-					long size = Files.size(path);
-					List<Object> list = sizeToHashMap.get(size);
-					if (ObjectUtils.isEmpty(list)) {
-						sizeToHashMap.add(size, path);
-					} else {
-						if (list.size() == 1) {
-							list.set(0, hashFileContent((Path) list.get(0)));
-						}
-						String hash = hashFileContent(path);
-						if (list.contains(hash)) {
-							throw new CustomRuntimeException(HttpStatus.BAD_REQUEST,
-								"Duplicate file upload detected: " + fileIdToNameMap.get(filename(path)));
-						}
-						list.add(hash);
-					}
-				} catch (IOException | NoSuchAlgorithmException e) {
-					throw new CustomRuntimeException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to verify uploaded files", e);
+		for (ExcelFileDetailEntity fileDetailEntity : fileDetailEntities) {
+			ExcelFileDetailTO newFile = newFileMap.get(fileDetailEntity.getFileId());
+			ExcelFileDetailEntity removedFile = newFile == null ? null
+				: removedFileByNameMap.get(fileDetailEntity.getFileName());
+			if (removedFile == null)
+				continue;
+
+			Set<String> sheets = sheetSet(newFile.getSheets());
+			if (!sheets.equals(sheetSet(removedFile.getSheets())))
+				continue;
+
+			ExcelFileDetailTO removedFileDetail = new ExcelFileDetailTO();
+			removedFileDetail.setFileId(removedFile.getFileId());
+			removedFileDetail.setFileName(removedFile.getFileName());
+
+			try {
+				if (hasSameSheetContent(readSheetMetadata(removedFileDetail), readSheetMetadata(newFile), sheets)) {
+					fileDetailEntity.setChangedDate(removedFile.getChangedDate());
+					logger.debug("Excel file {} replaces {} without sheet changes", newFile.getFileId(),
+						removedFile.getFileId());
 				}
-			});
-		} catch (IOException e) {
+			} catch (CustomException e) {
+				// compared as changed, the file is synced again
+				logger.debug("Failed to compare the Excel file {} with {}", newFile.getFileId(), removedFile.getFileId(), e);
+			}
+		}
+	}
+
+	private boolean hasSameSheetContent(List<SheetMetadata> previousSheets, List<SheetMetadata> sheets,
+		Set<String> sheetNames) {
+
+		Map<String, String> previousFingerprintMap = new HashMap<>(previousSheets.size());
+		previousSheets.forEach(sheet -> previousFingerprintMap.putIfAbsent(sheet.name(), sheet.fingerprint()));
+
+		Map<String, String> fingerprintMap = new HashMap<>(sheets.size());
+		sheets.forEach(sheet -> fingerprintMap.putIfAbsent(sheet.name(), sheet.fingerprint()));
+
+		for (String sheetName : sheetNames) {
+			String fingerprint = fingerprintMap.get(sheetName);
+			if (fingerprint == null || !fingerprint.equals(previousFingerprintMap.get(sheetName)))
+				return false;
+		}
+		return true;
+	}
+
+	private Set<String> sheetSet(String sheets) {
+		return new HashSet<>(splitSheetNames(sheets));
+	}
+
+	/**
+	 * Selected sheet names of the file, they are comma separated. Names are trimmed and blank names dropped
+	 */
+	static List<String> splitSheetNames(String sheets) {
+		if (sheets == null)
+			return List.of();
+		return Stream.of(sheets.split(",")).map(String::trim).filter(sheet -> !sheet.isEmpty()).toList();
+	}
+
+	void checkDuplicateFileUpload(List<ExcelFileDetailTO> fileDetailList) throws CustomException {
+		// size + hash -> fileId
+		Map<ExcelContentKey, String> contentToFileIdMap = new HashMap<>(fileDetailList.size());
+
+		for (ExcelFileDetailTO fileDetail : fileDetailList) {
+			ExcelContentKey contentKey = contentKey(fileDetail.getFileId());
+			if (contentKey == null)
+				continue;
+
+			if (contentToFileIdMap.putIfAbsent(contentKey, fileDetail.getFileId()) != null) {
+				throw new CustomException(HttpStatus.BAD_REQUEST,
+					"Duplicate file upload detected: " + fileDetail.getFileName());
+			}
+		}
+	}
+
+	private ExcelContentKey contentKey(String fileId) throws CustomException {
+		StagedExcelFile stagedFile = excelStagingRegistry.get(fileId);
+		if (stagedFile != null)
+			return stagedFile.contentKey();
+
+		ExcelContent content = excelContentStore.get(fileId);
+		if (content != null)
+			return content.key();
+
+		// file committed before the content index existed, hashed once and indexed
+		Path filePath = excelFileIndex.getCommitted(fileId);
+		if (filePath == null)
+			return null;
+
+		try {
+			long size = Files.size(filePath);
+			String hash = hashFileContent(filePath);
+			excelContentStore.registerCommitted(fileId, size, hash);
+			return new ExcelContentKey(size, hash);
+		} catch (IOException | NoSuchAlgorithmException e) {
 			throw new CustomException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to verify uploaded files", e);
 		}
 	}
 
+	private String hashFileContentUnchecked(Path path) throws IOException {
+		try {
+			return hashFileContent(path);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+	}
+
 	String hashFileContent(Path path) throws NoSuchAlgorithmException, IOException {
 		MessageDigest md = MessageDigest.getInstance("SHA-256");
 		try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
@@ -363,24 +503,21 @@ public class ExcelFileUploadServiceImpl {
 	// --------------------------------------------------------------------------------------------------------------
 	// Excel Sheets
 
+	// sheet names are streamed from the workbook structure, cell data is never loaded
 	String readExcelSheetsName(InputStream fileInputStream) throws CustomException {
-		StringBuilder sheetNames = new StringBuilder();
-
-		try (Workbook workbook = WorkbookFactory.create(fileInputStream)) {
-			Iterator<Sheet> sheetIterator = workbook.sheetIterator();
-			while (sheetIterator.hasNext()) {
-				Sheet sheet = sheetIterator.next();
-				if (sheet.getSheetName() != null) {
-					sheetNames.append(sheet.getSheetName());
-					if (sheetIterator.hasNext())
-						sheetNames.append(",");
-				}
-			}
+		try (InputStream in = fileInputStream) {
+			return String.join(",", ExcelWorkbookUtils.readSheetNames(in));
 		} catch (Exception e) {
 			throw new CustomException(HttpStatus.BAD_REQUEST, "Failed to retrieve Excel sheets", e);
 		}
+	}
 
-		return sheetNames.toString();
+	String readExcelSheetsName(Path path) throws CustomException {
+		try {
+			return String.join(",", ExcelWorkbookUtils.readSheetNames(path));
+		} catch (Exception e) {
+			throw new CustomException(HttpStatus.BAD_REQUEST, "Failed to retrieve Excel sheets", e);
+		}
 	}
 
 	public String getExcelSheetName(MultipartFile file) throws CustomException {
@@ -405,30 +542,51 @@ public class ExcelFileUploadServiceImpl {
 			throw new CustomException(HttpStatus.BAD_REQUEST, "Excel file doesn't exists for PCM ID: " + pcmEntity.getProjectConnectorId());
 		}
 
-		if (!excelDirectoryExists()) {
-			throw new CustomException(HttpStatus.INTERNAL_SERVER_ERROR, "Excel storage directory doesn't exists");
+		Set<String> fileIds = fileDetailEntityList.stream().map(ExcelFileDetailEntity::getFileId)
+			.collect(Collectors.toSet());
+
+		HashMap<String, String> resultMap = new HashMap<>(fileIds.size());
+		Set<String> fileIdsWithoutMetadata = new HashSet<>();
+		for (String fileId : fileIds) {
+			ExcelFileMetadata metadata = excelFileMetadataStore.get(fileId);
+			if (metadata != null) {
+				resultMap.put(fileId, metadata.sheetNames());
+			} else {
+				fileIdsWithoutMetadata.add(fileId);
+			}
 		}
 
-		File excelDirectory = getExcelDirectory();
+		if (fileIdsWithoutMetadata.isEmpty()) {
+			return resultMap;
+		}
 
-		Set<String> fileIds = fileDetailEntityList.stream().map(ExcelFileDetailEntity::getFileId)
-			.collect(Collectors.toSet());
+		// files committed before the metadata was recorded, built once on first read
+		if (!excelDirectoryExists()) {
+			throw new CustomException(HttpStatus.INTERNAL_SERVER_ERROR, "Excel storage directory doesn't exists");
+		}
 
-		File[] pcmExcelFiles = excelDirectory.listFiles((file, name) -> fileIds.contains(filename(name)));
+		List<Path> pcmExcelFiles = fileIdsWithoutMetadata.stream().map(excelFileIndex::getCommitted)
+			.filter(Objects::nonNull).toList();
 
-		if (ObjectUtils.isEmpty(pcmExcelFiles)) {
+		if (pcmExcelFiles.isEmpty() && resultMap.isEmpty()) {
 			throw new CustomException(
 				HttpStatus.BAD_REQUEST,
 				"Excel file doesn't exists for PCM ID: " + pcmEntity.getProjectConnectorId()
 				+ " Try to upload the Excel file and save Project Connector");
 		}
 
-		HashMap<String, String> resultMap = new HashMap<>(fileIds.size());
 		try {
-			for (File excelFile : pcmExcelFiles) {
-				resultMap.put(filename(excelFile.getName()), readExcelSheetsName(new FileInputStream(excelFile)));
+			for (Path excelFile : pcmExcelFiles) {
+				String fileId = filename(excelFile);
+				try {
+					resultMap.put(fileId, excelFileMetadataStore
+						.build(fileId, excelFile, hashFileContentUnchecked(excelFile)).sheetNames());
+				} catch (IOException e) {
+					logger.error("Failed to build the Excel file metadata: {}", fileId, e);
+					resultMap.put(fileId, readExcelSheetsName(excelFile));
+				}
 			}
-		} catch (FileNotFoundException | SecurityException e) {
+		} catch (SecurityException e) {
 			throw new CustomException(
 				HttpStatus.INTERNAL_SERVER_ERROR,
 				"Failed to read the Excel file for PCM ID: " + pcmEntity.getProjectConnectorId(),
@@ -501,76 +659,320 @@ public class ExcelFileUploadServiceImpl {
 
 	public List<String> stageUploadedExcelFileToTempStorage(List<MultipartFile> files) throws CustomException {
 		File excelTempDirectory = getExcelTempDirectory();
+
+		if (files.size() == 1) {
+			return List.of(stageUploadedExcelFile(files.get(0), excelTempDirectory));
+		}
+
+		// files are staged in parallel, ids are returned in the upload order
+		List<CompletableFuture<String>> stagingFutures = files.stream()
+			.map(file -> CompletableFuture.supplyAsync(() -> {
+				try {
+					return stageUploadedExcelFile(file, excelTempDirectory);
+				} catch (CustomException e) {
+					throw new CompletionException(e);
+				}
+			}, stagingExecutor))
+			.toList();
+
 		List<String> idList = new ArrayList<>(files.size());
+		CustomException failure = null;
+		for (CompletableFuture<String> stagingFuture : stagingFutures) {
+			try {
+				idList.add(stagingFuture.join());
+			} catch (CompletionException e) {
+				if (failure == null) {
+					failure = e.getCause() instanceof CustomException customException ? customException
+						: new CustomException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to save the uploaded Excel file",
+							e.getCause());
+				}
+			}
+		}
+
+		if (failure != null) {
+			throw failure;
+		}
+		return idList;
+	}
+
+	/**
+	 * Single pass over the upload: content is hashed while it is written to the temp storage,
+	 * only the workbook structure is read back for the sheet names
+	 */
+	private String stageUploadedExcelFile(MultipartFile file, File excelTempDirectory) throws CustomException {
+		String fileId = UUID.randomUUID().toString();
+		Path path = excelTempDirectory.toPath()
+			.resolve(fileId + "." + FilenameUtils.getExtension(file.getOriginalFilename()));
+
+		try {
+			MessageDigest md = MessageDigest.getInstance("SHA-256");
+			long size;
+			try (ReadableByteChannel in = Channels.newChannel(new DigestInputStream(file.getInputStream(), md));
+				FileChannel out = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+				size = transferTo(in, out);
+			}
+			registerStagedExcelFile(fileId, file.getOriginalFilename(), path, size, toHexString(md.digest()));
+
+			return fileId;
+		} catch (Exception e) {
+			FileUtils.deleteQuietly(path.toFile());
+			throw new CustomException(
+				HttpStatus.INTERNAL_SERVER_ERROR,
+				"Failed to save the uploaded Excel file: " + file.getOriginalFilename(),
+				e
+			);
+		}
+	}
+
+	/**
+	 * Registers the file written to the temp storage, it is available to the PCM save/update from here on
+	 */
+	void registerStagedExcelFile(String fileId, String originalFilename, Path path, long size, String sha256) {
+		String sheets = null;
+		try {
+			sheets = readExcelSheetsName(path);
+		} catch (CustomException e) {
+			logger.debug("Failed to read the sheets of the uploaded Excel file: {}", originalFilename, e);
+		}
+
+		// auto remove file from the temp directory
+		// if the corresponding PCM save/update operation is not completed
+		scheduleTempExcelFilePurging(new StagedExcelFile(fileId, originalFilename, path.getFileName().toString(),
+			sheets, size, sha256, System.currentTimeMillis() + EXCEL_TEMP_FILE_PURGE_SCHEDULE_MS));
+	}
+
+	private long transferTo(ReadableByteChannel in, FileChannel out) throws IOException {
+		long position = 0;
+		long transferred;
+		while ((transferred = out.transferFrom(in, position, EXCEL_STAGING_TRANSFER_CHUNK_BYTES)) > 0) {
+			position += transferred;
+		}
+		return position;
+	}
+
+	/**
+	 * Sheet names of the file staged in the temp storage, read while it was uploaded
+	 */
+	public String getStagedExcelSheetName(String fileId) throws CustomException {
+		validateFileIds(List.of(fileId));
+		StagedExcelFile stagedFile = excelStagingRegistry.get(fileId);
+		if (stagedFile == null || stagedFile.sheets() == null) {
+			throw new CustomException(HttpStatus.BAD_REQUEST,
+				"Excel file is missing/invalid. Try again by uploading the Excel file");
+		}
+		return stagedFile.sheets();
+	}
+
+	// --------------------------------------------------------------------------------------------------------------
+	// Content validation
+
+	/**
+	 * Validates the content of the PCM Excel files before the PCM is saved
+	 *
+	 * <li>Files are read in parallel, each sheet is streamed so only its header row is held
+	 * <li>Selected sheets must exist in the file
+	 * <li>Columns mapped to the id/type fields must be present in every selected sheet,
+	 * the other mapped columns in at least one of the selected sheets
+	 * <li>Sheets read from the staged files are reused when the files are committed
+	 */
+	void validateExcelFileContent(List<ExcelFileDetailTO> fileDetailList, List<FieldMappingTO> fieldMappingList)
+		throws CustomException {
+
+		Map<String, List<SheetMetadata>> fileSheetMap = readSheetMetadata(fileDetailList);
+
+		Set<String> identityHeaders = new LinkedHashSet<>();
+		Set<String> mappedHeaders = new LinkedHashSet<>();
+		for (FieldMappingTO fieldMapping : fieldMappingList) {
+			if (ObjectUtils.isEmpty(fieldMapping.getValue()))
+				continue;
+			(EXCEL_IDENTITY_FIELD_KEYS.contains(fieldMapping.getKey()) ? identityHeaders : mappedHeaders)
+				.add(fieldMapping.getValue().trim());
+		}
+
+		Set<String> selectedSheetHeaders = new HashSet<>();
+		for (ExcelFileDetailTO fileDetail : fileDetailList) {
+			Map<String, SheetMetadata> sheetMap = fileSheetMap.get(fileDetail.getFileId()).stream()
+				.collect(Collectors.toMap(SheetMetadata::name, sheet -> sheet, (first, second) -> first));
+
+			List<String> sheetNames = splitSheetNames(fileDetail.getSheets());
+			if (sheetNames.isEmpty()) {
+				throw new CustomException(HttpStatus.BAD_REQUEST,
+					"No Excel sheet is selected for the file: %s".formatted(fileDetail.getFileName()));
+			}
 
-		for (MultipartFile file : files) {
-			UUID uuid = UUID.randomUUID();
-			String path = excelTempDirectory + "/" + uuid + "." + FilenameUtils.getExtension(file.getOriginalFilename());
+			for (String sheetName : sheetNames) {
+				SheetMetadata sheet = sheetMap.get(sheetName);
+				if (sheet == null) {
+					throw new CustomException(HttpStatus.BAD_REQUEST,
+						"Excel sheet '%s' doesn't exist in the file: %s".formatted(sheetName, fileDetail.getFileName()));
+				}
+
+				Set<String> headers = sheet.headers().stream().filter(Objects::nonNull).map(this::normalizeHeader)
+					.collect(Collectors.toSet());
+				List<String> missingHeaders = identityHeaders.stream()
+					.filter(header -> !headers.contains(normalizeHeader(header))).toList();
+				if (!missingHeaders.isEmpty()) {
+					throw new CustomException(HttpStatus.BAD_REQUEST,
+						"Excel sheet '%s' of the file %s is missing the mapped columns: %s".formatted(sheetName,
+							fileDetail.getFileName(), String.join(", ", missingHeaders)));
+				}
+				selectedSheetHeaders.addAll(headers);
+			}
+		}
+
+		List<String> missingHeaders = mappedHeaders.stream()
+			.filter(header -> !selectedSheetHeaders.contains(normalizeHeader(header))).toList();
+		if (!missingHeaders.isEmpty()) {
+			throw new CustomException(HttpStatus.BAD_REQUEST,
+				"Mapped columns are missing in the selected Excel sheets: " + String.join(", ", missingHeaders));
+		}
+	}
 
+	/**
+	 * fileId -> sheets, staged files are read in parallel, committed files from their metadata
+	 */
+	private Map<String, List<SheetMetadata>> readSheetMetadata(List<ExcelFileDetailTO> fileDetailList)
+		throws CustomException {
+
+		Map<String, CompletableFuture<List<SheetMetadata>>> readingFutureMap = new HashMap<>(fileDetailList.size());
+		for (ExcelFileDetailTO fileDetail : fileDetailList) {
+			readingFutureMap.put(fileDetail.getFileId(), CompletableFuture.supplyAsync(() -> {
+				try {
+					return readSheetMetadata(fileDetail);
+				} catch (CustomException e) {
+					throw new CompletionException(e);
+				}
+			}, stagingExecutor));
+		}
+
+		Map<String, List<SheetMetadata>> fileSheetMap = new HashMap<>(fileDetailList.size());
+		CustomException failure = null;
+		for (Map.Entry<String, CompletableFuture<List<SheetMetadata>>> entry : readingFutureMap.entrySet()) {
 			try {
-				FileUtils.copyInputStreamToFile(file.getInputStream(), new File(path));
+				fileSheetMap.put(entry.getKey(), entry.getValue().join());
+			} catch (CompletionException e) {
+				if (failure == null) {
+					failure = e.getCause() instanceof CustomException customException ? customException
+						: new CustomException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to read the Excel file",
+							e.getCause());
+				}
+			}
+		}
 
-				// auto remove file from the temp directory
-				// if the corresponding PCM save/update operation is not completed
-				scheduleTempExcelFilePurging(uuid.toString(), file.getOriginalFilename());
+		if (failure != null) {
+			throw failure;
+		}
+		return fileSheetMap;
+	}
 
-				idList.add(uuid.toString());
-			} catch (Exception e) {
-				throw new CustomException(
-					HttpStatus.INTERNAL_SERVER_ERROR,
-					"Failed to save the uploaded Excel file: " + file.getOriginalFilename(),
-					e
-				);
+	private List<SheetMetadata> readSheetMetadata(ExcelFileDetailTO fileDetail) throws CustomException {
+		String fileId = fileDetail.getFileId();
+		try {
+			StagedExcelFile stagedFile = excelStagingRegistry.get(fileId);
+			if (stagedFile != null) {
+				List<SheetMetadata> sheets = validatedSheetMap.get(fileId);
+				if (sheets == null) {
+					sheets = ExcelWorkbookUtils.readSheetMetadata(
+						excelTempDirectoryInstance().toPath().resolve(stagedFile.storedName()));
+					validatedSheetMap.put(fileId, sheets);
+				}
+				return sheets;
 			}
+
+			ExcelFileMetadata metadata = excelFileMetadataStore.get(fileId);
+			if (metadata != null)
+				return metadata.sheets();
+
+			Path committedFile = excelFileIndex.getCommitted(fileId);
+			if (committedFile != null)
+				return excelFileMetadataStore.build(fileId, committedFile, hashFileContent(committedFile)).sheets();
+		} catch (IOException | NoSuchAlgorithmException | RuntimeException e) {
+			throw new CustomException(HttpStatus.BAD_REQUEST,
+				"Excel file is invalid or corrupted: " + fileDetail.getFileName(), e);
 		}
 
-		return idList;
+		throw new CustomException(HttpStatus.BAD_REQUEST,
+			"Excel file is missing/invalid. Try again by uploading the Excel file before saving Project Connector");
 	}
 
+	private String normalizeHeader(String header) {
+		return header.trim().toLowerCase(Locale.ROOT);
+	}
+
+	// --------------------------------------------------------------------------------------------------------------
+
 	void commitUploadedExcelFileToFinalStorage(List<ExcelFileDetailTO> fileDetailList) throws CustomException {
 		Set<String> fileIds = fileDetailList.stream().map(ExcelFileDetailTO::getFileId).collect(Collectors.toSet());
 		commitUploadedExcelFileToFinalStorage(fileIds);
 	}
 
 	void commitUploadedExcelFileToFinalStorage(Set<String> fileIds) throws CustomException {
-		File excelTempDirectory = getExcelTempDirectory();
+		getExcelDirectory();
+		Path excelTempDirectory = excelTempDirectoryInstance().toPath();
 
-		File[] stagedFileList = excelTempDirectory.listFiles((f, name) -> fileIds.contains(filename(name)));
-		if (ObjectUtils.isEmpty(stagedFileList) || stagedFileList.length != fileIds.size()) {
+		List<StagedExcelFile> stagedFileList = fileIds.stream().map(excelStagingRegistry::get).filter(Objects::nonNull)
+			.filter(stagedFile -> Files.exists(excelTempDirectory.resolve(stagedFile.storedName()))).toList();
+		if (stagedFileList.isEmpty() || stagedFileList.size() != fileIds.size()) {
 			throw new CustomException(HttpStatus.BAD_REQUEST,
 				"Excel file is missing/invalid. Try again by uploading the Excel file before saving Project Connector");
 		}
 
 		// move file from temp to final storage
-		for (File stagedFile : stagedFileList) {
+		Map<StagedExcelFile, Path> committedFileMap = new HashMap<>(stagedFileList.size());
+		for (StagedExcelFile stagedFile : stagedFileList) {
+			Path committedFile = excelFileIndex.committedPath(stagedFile.fileId(),
+				FilenameUtils.getExtension(stagedFile.storedName()));
 			try {
-				FileUtils.moveFileToDirectory(stagedFile, excelDirectoryInstance(), false);
+				Files.createDirectories(committedFile.getParent());
+				FileUtils.moveFile(excelTempDirectory.resolve(stagedFile.storedName()).toFile(), committedFile.toFile());
+				excelFileIndex.commit(stagedFile.fileId(), committedFile);
+				committedFileMap.put(stagedFile, committedFile);
 			} catch (Exception e) {
 				throw new CustomException(
-					HttpStatus.INTERNAL_SERVER_ERROR, "Failed to save the uploaded Excel file: " + stagedFile.getName(),
+					HttpStatus.INTERNAL_SERVER_ERROR, "Failed to save the uploaded Excel file: " + stagedFile.storedName(),
 					e
 				);
 			}
 		}
 
+		// files with the same content share the stored blob
+		// sheet metadata is built once, a failure here is recovered on the first read
+		for (Map.Entry<StagedExcelFile, Path> entry : committedFileMap.entrySet()) {
+			String fileId = entry.getKey().fileId();
+			excelContentStore.commit(fileId, entry.getKey().contentKey(), entry.getValue());
+			try {
+				List<SheetMetadata> validatedSheets = validatedSheetMap.remove(fileId);
+				if (validatedSheets != null) {
+					excelFileMetadataStore.save(fileId, entry.getValue(), entry.getKey().sha256(), validatedSheets);
+				} else {
+					excelFileMetadataStore.build(fileId, entry.getValue(), entry.getKey().sha256());
+				}
+			} catch (Exception e) {
+				logger.error("Failed to build the Excel file metadata: {}", fileId, e);
+			}
+		}
+
 		excludeTempExcelFileFromPurging(fileIds);
 	}
 
 	void deleteExcelFileFromFinalStorage(Set<String> fileIds) throws CustomException {
-		File excelDirectory = getExcelDirectory();
+		getExcelDirectory();
 
-		// ignore missing files
-		File[] fileList = excelDirectory.listFiles((f, name) -> fileIds.contains(filename(name)));
-		if (ObjectUtils.isEmpty(fileList)) {
-			return;
-		}
+		fileIds.forEach(excelFileMetadataStore::remove);
+
+		for (String fileId : fileIds) {
+			// ignore missing files
+			Path file = excelFileIndex.getCommitted(fileId);
+			if (file == null)
+				continue;
 
-		for (File file : fileList) {
 			try {
-				FileUtils.delete(file);
+				Files.deleteIfExists(file);
+				excelFileIndex.remove(fileId);
+				excelContentStore.remove(fileId);
 			} catch (Exception e) {
 				throw new CustomException(
-					HttpStatus.INTERNAL_SERVER_ERROR, "Failed to delete the Excel file: " + file.getName(),
+					HttpStatus.INTERNAL_SERVER_ERROR, "Failed to delete the Excel file: " + file.getFileName(),
 					e
 				);
 			}
@@ -595,72 +997,88 @@ public class ExcelFileUploadServiceImpl {
 		}
 	} */
 
+	/**
+	 * File ids from the client end up in storage paths, only the ids generated on upload are accepted
+	 */
+	private void validateFileIds(Collection<String> fileIds) throws CustomException {
+		for (String fileId : fileIds) {
+			if (!ExcelFileIndex.isFileId(fileId)) {
+				throw new CustomException(HttpStatus.BAD_REQUEST, "Invalid Excel file id: " + fileId);
+			}
+		}
+	}
+
 	void checkExcelFileIsStagedInMap(ExcelFileDetailTO fileDetail) throws CustomException {
-		if (ObjectUtils.isEmpty(excelTempFileStagedMap)
-			|| !excelTempFileStagedMap.containsKey(fileDetail.getFileId())) {
+		StagedExcelFile stagedFile = excelStagingRegistry.get(fileDetail.getFileId());
+		if (stagedFile == null) {
 			throw new CustomException(HttpStatus.BAD_REQUEST,
 				"Excel file is missing/invalid. Try again by uploading the Excel file before saving Project Connector");
 		}
 
 		// set the filename to handle any arbitrary input filename
-		fileDetail.setFileName(excelTempFileStagedMap.get(fileDetail.getFileId()).filename());
+		fileDetail.setFileName(stagedFile.filename());
 	}
 
 	void checkExcelFileIsStagedInMap(List<ExcelFileDetailTO> fileDetailList) throws CustomException {
-		if (ObjectUtils.isEmpty(excelTempFileStagedMap)
-			|| !fileDetailList.stream().allMatch(fileDetail -> excelTempFileStagedMap.containsKey(fileDetail.getFileId()))) {
-			throw new CustomException(HttpStatus.BAD_REQUEST,
-				"Excel file is missing/invalid. Try again by uploading the Excel file before saving Project Connector");
+		Map<String, StagedExcelFile> stagedFileMap = new HashMap<>(fileDetailList.size());
+		for (ExcelFileDetailTO fileDetail : fileDetailList) {
+			StagedExcelFile stagedFile = excelStagingRegistry.get(fileDetail.getFileId());
+			if (stagedFile == null) {
+				throw new CustomException(HttpStatus.BAD_REQUEST,
+					"Excel file is missing/invalid. Try again by uploading the Excel file before saving Project Connector");
+			}
+			stagedFileMap.put(fileDetail.getFileId(), stagedFile);
 		}
 
 		// set the filename to handle any arbitrary input filename
 		for (ExcelFileDetailTO fileDetail : fileDetailList) {
-			fileDetail.setFileName(excelTempFileStagedMap.get(fileDetail.getFileId()).filename());
+			fileDetail.setFileName(stagedFileMap.get(fileDetail.getFileId()).filename());
 		}
 	}
 
-	private void scheduleTempExcelFilePurging(String uuid, String filename) {
-		if (excelTempFileStagedMap == null)
-			excelTempFileStagedMap = new ConcurrentHashMap<>(5);
-
-		ScheduledFuture<?> task = purgingScheduledExecutorService.schedule(this::purgeTempExcelFilesOnTimeout,
-			EXCEL_TEMP_FILE_PURGE_SCHEDULE_MS, TimeUnit.MILLISECONDS);
-
-		excelTempFileStagedMap.put(uuid, new ExcelFilePurgeTask(filename, task));
-
-		logger.debug("staged: {} tasks: {} (scheduled)", excelTempFileStagedMap.size(),
-			purgingScheduledExecutorService.getQueue().size());
+	private void scheduleTempExcelFilePurging(StagedExcelFile stagedFile) {
+		excelStagingRegistry.register(stagedFile);
+		logger.debug("staged: {} (scheduled)", excelStagingRegistry.stagedCount());
 	}
 
-	private void purgeAllTempExcelFilesOnStartup() {
-		purgeTempExcelFiles(true, null);
-	}
+	private void purgeTempExcelFiles() {
+		purgeAllTempExcelFilesOnStartup();
 
-	private void purgeTempExcelFilesOnTimeout() {
-		purgeTempExcelFiles(
-			false,
-			path -> ((System.currentTimeMillis() - path.toFile().lastModified()) >= (EXCEL_TEMP_FILE_PURGE_SCHEDULE_MS / 2))
-		);
+		while (!Thread.currentThread().isInterrupted()) {
+			try {
+				excelStagingRegistry.awaitExpired().forEach(this::purgeTempExcelFileOnTimeout);
+				// committed or purged by another instance sharing the registry
+				if (excelStagingRegistry.isShared())
+					validatedSheetMap.keySet().removeIf(fileId -> excelStagingRegistry.get(fileId) == null);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (Exception e) {
+				logger.error("Failed to purge the temp excel files", e);
+			}
+		}
 	}
 
-	private void purgeTempExcelFiles(boolean cleanOnStartup, Predicate<Path> filterPredicate) {
+	private void purgeAllTempExcelFilesOnStartup() {
 		if (!excelTempDirectoryInstance().exists())
 			return;
 
 		logger.debug("Starting purging process of temp excel file");
 
+		// another instance may be between writing an upload and registering it, only files older than the
+		// staging deadline can be orphans
+		long orphanedBeforeMillis = excelStagingRegistry.isShared()
+			? System.currentTimeMillis() - EXCEL_TEMP_FILE_PURGE_SCHEDULE_MS
+			: Long.MAX_VALUE;
+
 		AtomicInteger deletedCount = new AtomicInteger();
 		try (Stream<Path> tempDirStream = Files.list(Path.of(excelTempDirectoryUrl))) {
 			tempDirStream
-				.filter(path -> cleanOnStartup || filterPredicate.test(path))
+				// files still registered, uploaded since the startup or by another instance, are left to their deadline
+				.filter(path -> Files.isRegularFile(path) && excelStagingRegistry.get(filename(path)) == null)
+				.filter(path -> path.toFile().lastModified() < orphanedBeforeMillis)
 				.forEach(path -> {
 						try {
 							Files.delete(path);
-							if (!cleanOnStartup) {
-								String fileId = path.toFile().getName().substring(0, 36); // uuid length
-								excelTempFileStagedMap.get(fileId).task().cancel(false);
-								excelTempFileStagedMap.remove(fileId);
-							}
 							deletedCount.getAndIncrement();
 							logger.debug("Removing Excel file from .tmp directory: {}", path.toFile().getName());
 						} catch (Exception e) {
@@ -669,47 +1087,29 @@ public class ExcelFileUploadServiceImpl {
 					}
 				);
 
-			if (!cleanOnStartup) {
-				logger.debug("staged: {} tasks: {} (purged)", excelTempFileStagedMap.size(),
-					purgingScheduledExecutorService.getQueue().size());
-
-				if (excelTempFileStagedMap.isEmpty()) {
-					clearScheduledQueuedTasksForPurging();
-				}
-			}
-
 			logger.debug("Completed purging process of temp excel file: {}", deletedCount.get());
 		} catch (Exception e) {
 			logger.error("Failed to purge the temp excel files", e);
 		}
 	}
 
-	private void excludeTempExcelFileFromPurging(Set<String> fileIds) {
-		fileIds.forEach(fileId -> {
-			excelTempFileStagedMap.get(fileId).task().cancel(true);
-			excelTempFileStagedMap.remove(fileId);
-		});
-
-		logger.debug("staged: {} tasks: {} (excluded)", excelTempFileStagedMap.size(),
-			purgingScheduledExecutorService.getQueue().size());
-
-		if (excelTempFileStagedMap.isEmpty()) {
-			clearScheduledQueuedTasksForPurging();
+	private void purgeTempExcelFileOnTimeout(StagedExcelFile stagedFile) {
+		validatedSheetMap.remove(stagedFile.fileId());
+		Path path = excelTempDirectoryInstance().toPath().resolve(stagedFile.storedName());
+		try {
+			Files.deleteIfExists(path);
+			logger.debug("Removing Excel file from .tmp directory: {}", stagedFile.storedName());
+		} catch (IOException e) {
+			logger.error("Failed to purge the temp excel file: {}", stagedFile.fileId(), e);
 		}
-	}
-
-	void clearScheduledQueuedTasksForPurging() {
-		logger.debug("staged: {} tasks: {} (clear before)", excelTempFileStagedMap.size(),
-			purgingScheduledExecutorService.getQueue().size());
 
-		if (!purgingScheduledExecutorService.getQueue().isEmpty()) {
-			purgingScheduledExecutorService.getQueue()
-				.forEach(runnable -> purgingScheduledExecutorService.remove(runnable));
-			purgingScheduledExecutorService.purge();
+		logger.debug("staged: {} (purged)", excelStagingRegistry.stagedCount());
+	}
 
-			logger.debug("staged: {} tasks: {} (clear after)", excelTempFileStagedMap.size(),
-				purgingScheduledExecutorService.getQueue().size());
-		}
+	private void excludeTempExcelFileFromPurging(Set<String> fileIds) {
+		fileIds.forEach(excelStagingRegistry::remove);
+		fileIds.forEach(validatedSheetMap::remove);
+		logger.debug("staged: {} (excluded)", excelStagingRegistry.stagedCount());
 	}
 
 
@@ -732,5 +1132,3 @@ public class ExcelFileUploadServiceImpl {
 		return FilenameUtils.getBaseName(fileName);
 	}
 }
-
-record ExcelFilePurgeTask(String filename, ScheduledFuture<?> task) {}
@@ -0,0 +1,43 @@
+package com.lti.knowledge.service.impl;
+
+import java.util.List;
+
+/**
+ * Registry of the Excel files uploaded to the temp storage, waiting for the PCM save/update to commit them.
+ *
+ * <li>local - in memory, the upload and the PCM save have to reach the same instance
+ * <li>shared - on the assets volume, any instance sharing the volume can commit or purge the upload
+ *
+ * Selected with excel.staging.registry, local by default.
+ */
+interface ExcelStagingRegistry {
+
+	void register(StagedExcelFile stagedFile);
+
+	/**
+	 * @return the staged file, null if it was never staged, is committed or is purged
+	 */
+	StagedExcelFile get(String fileId);
+
+	/**
+	 * @return the removed staged file, null if it was not registered
+	 */
+	StagedExcelFile remove(String fileId);
+
+	/**
+	 * Blocks till staged files are past their purge deadline, then removes and returns them.
+	 * An expired file is returned to one caller only, across the instances sharing the registry.
+	 */
+	List<StagedExcelFile> awaitExpired() throws InterruptedException;
+
+	/**
+	 * @return true if other instances stage, commit and purge files in the same temp storage
+	 */
+	default boolean isShared() {
+		return false;
+	}
+
+	int stagedCount();
+
+	long stagedBytes();
+}
@@ -0,0 +1,414 @@
+package com.lti.knowledge.util;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.poi.hssf.eventusermodel.AbortableHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+/**
+ * Reads Excel workbook structure without loading the cell data.
+ *
+ * <li>.xlsx - sheet names are streamed from the workbook part of the OOXML package
+ * <li>.xls - sheet names are read from the BoundSheet records of the BIFF workbook globals
+ * <li>anything else is handed over to {@link WorkbookFactory}
+ */
+public final class ExcelWorkbookUtils {
+
+	/**
+	 * @param rowCount number of rows holding data, header row included
+	 * @param headers formatted values of the first row, blank for the empty cells
+	 * @param fingerprint SHA-256 of the formatted cell values and their references, null if it was never computed
+	 */
+	public record SheetMetadata(String name, int rowCount, List<String> headers, String fingerprint) {}
+
+	private static final String PACKAGE_RELATIONSHIPS = "_rels/.rels";
+	private static final String DEFAULT_WORKBOOK_PART = "xl/workbook.xml";
+	private static final String OFFICE_DOCUMENT_RELATIONSHIP_SUFFIX = "/officeDocument";
+
+	private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newFactory();
+
+	static {
+		XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+	}
+
+	private ExcelWorkbookUtils() {}
+
+	/**
+	 * Sheet names of the Excel file, in workbook order
+	 */
+	public static List<String> readSheetNames(Path path) throws IOException {
+		FileMagic fileMagic;
+		try (InputStream in = FileMagic.prepareToCheckMagic(Files.newInputStream(path))) {
+			fileMagic = FileMagic.valueOf(in);
+		}
+
+		switch (fileMagic) {
+			case OOXML:
+				// random access, only the package relationships and the workbook part are inflated
+				try (ZipFile zipFile = new ZipFile(path.toFile())) {
+					String workbookPart = DEFAULT_WORKBOOK_PART;
+					ZipEntry relationshipsEntry = zipFile.getEntry(PACKAGE_RELATIONSHIPS);
+					if (relationshipsEntry != null) {
+						try (InputStream in = zipFile.getInputStream(relationshipsEntry)) {
+							workbookPart = readWorkbookPartName(in);
+						}
+					}
+
+					ZipEntry workbookEntry = zipFile.getEntry(workbookPart);
+					if (workbookEntry == null) {
+						throw new IOException("Workbook part is missing: " + workbookPart);
+					}
+					try (InputStream in = zipFile.getInputStream(workbookEntry)) {
+						return readOoxmlSheetNames(in);
+					}
+				}
+			case OLE2:
+				try (POIFSFileSystem fileSystem = new POIFSFileSystem(path.toFile(), true)) {
+					return readOle2SheetNames(fileSystem);
+				}
+			default:
+				try (InputStream in = Files.newInputStream(path)) {
+					return readSheetNamesWithWorkbookFactory(in);
+				}
+		}
+	}
+
+	/**
+	 * Sheet names of the Excel file, in workbook order
+	 */
+	public static List<String> readSheetNames(InputStream inputStream) throws IOException {
+		InputStream in = FileMagic.prepareToCheckMagic(
+			inputStream.markSupported() ? inputStream : new BufferedInputStream(inputStream));
+
+		switch (FileMagic.valueOf(in)) {
+			case OOXML:
+				return readOoxmlSheetNamesFromZipStream(in);
+			case OLE2:
+				try (POIFSFileSystem fileSystem = new POIFSFileSystem(in)) {
+					return readOle2SheetNames(fileSystem);
+				}
+			default:
+				return readSheetNamesWithWorkbookFactory(in);
+		}
+	}
+
+	/**
+	 * Sheet names, row counts and header rows of the Excel file, in workbook order.
+	 * Sheets are streamed one at a time, only the header row is held.
+	 */
+	public static List<SheetMetadata> readSheetMetadata(Path path) throws IOException {
+		FileMagic fileMagic;
+		try (InputStream in = FileMagic.prepareToCheckMagic(Files.newInputStream(path))) {
+			fileMagic = FileMagic.valueOf(in);
+		}
+
+		if (fileMagic != FileMagic.OOXML) {
+			// BIFF workbooks are bound to 65536 rows per sheet
+			try (Workbook workbook = WorkbookFactory.create(path.toFile(), null, true)) {
+				return sheetMetadata(workbook);
+			}
+		}
+
+		try (OPCPackage opcPackage = OPCPackage.open(path.toFile(), PackageAccess.READ)) {
+			XSSFReader xssfReader = new XSSFReader(opcPackage);
+			ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(opcPackage, false);
+			StylesTable styles = xssfReader.getStylesTable();
+			DataFormatter dataFormatter = new DataFormatter();
+
+			List<SheetMetadata> sheetMetadataList = new ArrayList<>();
+			XSSFReader.SheetIterator sheetIterator = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+			while (sheetIterator.hasNext()) {
+				try (InputStream sheetInputStream = sheetIterator.next()) {
+					SheetMetadataHandler handler = new SheetMetadataHandler();
+					XMLReader xmlReader = XMLHelper.newXMLReader();
+					xmlReader.setContentHandler(
+						new XSSFSheetXMLHandler(styles, null, sharedStrings, handler, dataFormatter, false));
+					xmlReader.parse(new InputSource(sheetInputStream));
+
+					sheetMetadataList.add(new SheetMetadata(sheetIterator.getSheetName(), handler.rowCount,
+						List.copyOf(handler.headers), handler.fingerprint.digest()));
+				}
+			}
+			return sheetMetadataList;
+		} catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+			throw new IOException("Failed to read the Excel sheets", e);
+		}
+	}
+
+	private static final class SheetMetadataHandler implements SheetContentsHandler {
+
+		private final List<String> headers = new ArrayList<>();
+		private final SheetFingerprint fingerprint = new SheetFingerprint();
+		private int rowCount = 0;
+		private boolean headerRow = false;
+
+		@Override
+		public void startRow(int rowNum) {
+			headerRow = rowCount == 0;
+			rowCount++;
+		}
+
+		@Override
+		public void endRow(int rowNum) {
+			headerRow = false;
+		}
+
+		@Override
+		public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+			fingerprint.update(cellReference, formattedValue);
+			if (!headerRow)
+				return;
+
+			int column = cellReference == null ? headers.size() : new CellReference(cellReference).getCol();
+			while (headers.size() < column) {
+				headers.add("");
+			}
+			headers.add(formattedValue == null ? "" : formattedValue);
+		}
+	}
+
+	private static List<SheetMetadata> sheetMetadata(Workbook workbook) {
+		DataFormatter dataFormatter = new DataFormatter();
+		List<SheetMetadata> sheetMetadataList = new ArrayList<>(workbook.getNumberOfSheets());
+
+		for (Sheet sheet : workbook) {
+			SheetFingerprint fingerprint = new SheetFingerprint();
+			for (Row row : sheet) {
+				for (Cell cell : row) {
+					fingerprint.update(cell.getAddress().formatAsString(), dataFormatter.formatCellValue(cell));
+				}
+			}
+
+			List<String> headers = new ArrayList<>();
+			Row headerRow = sheet.getPhysicalNumberOfRows() == 0 ? null : sheet.getRow(sheet.getFirstRowNum());
+			if (headerRow != null) {
+				for (int column = 0; column < headerRow.getLastCellNum(); column++) {
+					Cell cell = headerRow.getCell(column);
+					headers.add(cell == null ? "" : dataFormatter.formatCellValue(cell));
+				}
+			}
+			sheetMetadataList.add(new SheetMetadata(sheet.getSheetName(), sheet.getPhysicalNumberOfRows(),
+				List.copyOf(headers), fingerprint.digest()));
+		}
+		return sheetMetadataList;
+	}
+
+	/**
+	 * Hash of the sheet content as it is synced, the formatted cell values.
+	 * Independent of the workbook layout (shared strings, styles), an unchanged sheet of a re-saved workbook keeps it
+	 */
+	private static final class SheetFingerprint {
+
+		private static final byte CELL_SEPARATOR = 0;
+		private static final byte VALUE_SEPARATOR = 1;
+
+		private final MessageDigest md;
+
+		SheetFingerprint() {
+			try {
+				md = MessageDigest.getInstance("SHA-256");
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		void update(String cellReference, String formattedValue) {
+			if (formattedValue == null || formattedValue.isEmpty())
+				return;
+
+			if (cellReference != null)
+				md.update(cellReference.getBytes(StandardCharsets.UTF_8));
+			md.update(VALUE_SEPARATOR);
+			md.update(formattedValue.getBytes(StandardCharsets.UTF_8));
+			md.update(CELL_SEPARATOR);
+		}
+
+		String digest() {
+			return HexFormat.of().formatHex(md.digest());
+		}
+	}
+
+	// --------------------------------------------------------------------------------------------------------------
+	// OOXML
+
+	private static List<String> readOoxmlSheetNamesFromZipStream(InputStream in) throws IOException {
+		// entries are visited in archive order, the data of the skipped entries is never held
+		ZipInputStream zipInputStream = new ZipInputStream(in);
+		String workbookPart = DEFAULT_WORKBOOK_PART;
+
+		ZipEntry entry;
+		while ((entry = zipInputStream.getNextEntry()) != null) {
+			if (PACKAGE_RELATIONSHIPS.equals(entry.getName())) {
+				workbookPart = readWorkbookPartName(zipInputStream);
+			} else if (workbookPart.equals(entry.getName())) {
+				return readOoxmlSheetNames(zipInputStream);
+			}
+		}
+		throw new IOException("Workbook part is missing: " + workbookPart);
+	}
+
+	private static String readWorkbookPartName(InputStream in) throws IOException {
+		XMLStreamReader reader = null;
+		try {
+			reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+			while (reader.hasNext()) {
+				if (reader.next() == XMLStreamConstants.START_ELEMENT && "Relationship".equals(localName(reader))) {
+					String type = reader.getAttributeValue(null, "Type");
+					String target = reader.getAttributeValue(null, "Target");
+					if (type != null && type.endsWith(OFFICE_DOCUMENT_RELATIONSHIP_SUFFIX) && target != null) {
+						return target.startsWith("/") ? target.substring(1) : target;
+					}
+				}
+			}
+			return DEFAULT_WORKBOOK_PART;
+		} catch (XMLStreamException e) {
+			throw new IOException("Failed to read the package relationships", e);
+		} finally {
+			closeQuietly(reader);
+		}
+	}
+
+	private static List<String> readOoxmlSheetNames(InputStream in) throws IOException {
+		List<String> sheetNames = new ArrayList<>();
+		XMLStreamReader reader = null;
+		try {
+			reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+			while (reader.hasNext()) {
+				int event = reader.next();
+				if (event == XMLStreamConstants.START_ELEMENT && "sheet".equals(localName(reader))) {
+					String name = reader.getAttributeValue(null, "name");
+					if (name != null) {
+						sheetNames.add(name);
+					}
+				} else if (event == XMLStreamConstants.END_ELEMENT && "sheets".equals(localName(reader))) {
+					// nothing after <sheets> is needed
+					break;
+				}
+			}
+			return sheetNames;
+		} catch (XMLStreamException e) {
+			throw new IOException("Failed to read the workbook part", e);
+		} finally {
+			closeQuietly(reader);
+		}
+	}
+
+	private static String localName(XMLStreamReader reader) {
+		String name = reader.getLocalName();
+		int prefixEnd = name.indexOf(':');
+		return prefixEnd < 0 ? name : name.substring(prefixEnd + 1);
+	}
+
+	private static void closeQuietly(XMLStreamReader reader) {
+		if (reader == null)
+			return;
+		try {
+			reader.close();
+		} catch (XMLStreamException ignored) {
+			// underlying stream is owned by the caller
+		}
+	}
+
+	// --------------------------------------------------------------------------------------------------------------
+	// OLE2 (BIFF)
+
+	private static List<String> readOle2SheetNames(POIFSFileSystem fileSystem) throws IOException {
+		if (!fileSystem.getRoot().hasEntry("Workbook") && !fileSystem.getRoot().hasEntry("Book")) {
+			// e.g. password protected OOXML, wrapped in an OLE2 container
+			try (Workbook workbook = WorkbookFactory.create(fileSystem)) {
+				return sheetNames(workbook);
+			}
+		}
+
+		List<String> sheetNames = new ArrayList<>();
+		HSSFRequest request = new HSSFRequest();
+		AbortableHSSFListener listener = new AbortableHSSFListener() {
+			@Override
+			public short abortableProcessRecord(Record record) {
+				if (record instanceof BoundSheetRecord boundSheetRecord) {
+					sheetNames.add(boundSheetRecord.getSheetname());
+					return 0;
+				}
+				// BoundSheet records are part of the workbook globals, stop at its EOF
+				return (short) 1;
+			}
+		};
+		request.addListener(listener, BoundSheetRecord.sid);
+		request.addListener(listener, EOFRecord.sid);
+
+		try {
+			new HSSFEventFactory().abortableProcessWorkbookEvents(request, fileSystem);
+		} catch (Exception e) {
+			throw new IOException("Failed to read the workbook globals", e);
+		}
+		return sheetNames;
+	}
+
+	// --------------------------------------------------------------------------------------------------------------
+
+	private static List<String> readSheetNamesWithWorkbookFactory(InputStream in) throws IOException {
+		try (Workbook workbook = WorkbookFactory.create(in)) {
+			return sheetNames(workbook);
+		}
+	}
+
+	private static List<String> sheetNames(Workbook workbook) {
+		List<String> sheetNames = new ArrayList<>(workbook.getNumberOfSheets());
+		Iterator<Sheet> sheetIterator = workbook.sheetIterator();
+		while (sheetIterator.hasNext()) {
+			String sheetName = sheetIterator.next().getSheetName();
+			if (sheetName != null) {
+				sheetNames.add(sheetName);
+			}
+		}
+		return sheetNames;
+	}
+}
@@ -0,0 +1,140 @@
+package com.lti.knowledge.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.lti.knowledge.dao.ToolDAO;
+import com.lti.knowledge.entities.FieldMappingMstEntity;
+import com.lti.knowledge.entities.ToolMasterEntity;
+import com.lti.knowledge.to.FieldMappingMstTO;
+
+/**
+ * Field mapping master data of the tools, held in memory as an immutable versioned snapshot.
+ *
+ * <li>Loaded on startup, a tool missing from the snapshot (added later) is loaded on its first lookup,
+ * a tool that doesn't exist is not cached
+ * <li>Loaded in a read-only transaction, the master fields are lazy associations of the tools
+ * <li>Snapshots are replaced, never modified, readers need no locking
+ * <li>{@link #reload()} discards the snapshot and bumps the version, after the master data is changed
+ * <li>Fields of the snapshot are shared, callers must not modify them
+ */
+@Service
+public class FieldMappingCatalog {
+
+	private static final Logger logger = LoggerFactory.getLogger(FieldMappingCatalog.class);
+
+	@Autowired
+	private ToolDAO toolDao;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private TransactionTemplate readOnlyTransaction;
+
+	private volatile CatalogSnapshot snapshot = new CatalogSnapshot(1, Map.of());
+
+	@PostConstruct
+	private void setup() {
+		readOnlyTransaction = new TransactionTemplate(transactionManager);
+		readOnlyTransaction.setReadOnly(true);
+
+		try {
+			preload(snapshot.version());
+			logger.info("Loaded field mapping catalog: {} tools", snapshot.toolMap().size());
+		} catch (Exception e) {
+			logger.error("Failed to preload the field mapping catalog, tools are loaded on first use", e);
+		}
+	}
+
+	public long version() {
+		return snapshot.version();
+	}
+
+	/**
+	 * Field mapping master of the tool, empty if the tool doesn't exist
+	 */
+	ToolFieldMapping get(int toolId) {
+		ToolFieldMapping toolFieldMapping = snapshot.toolMap().get(toolId);
+		if (toolFieldMapping != null)
+			return toolFieldMapping;
+
+		return load(toolId);
+	}
+
+	/**
+	 * Replaces the catalog with the current master data
+	 *
+	 * @return version of the new catalog
+	 */
+	public synchronized long reload() {
+		// the current snapshot is kept if the master data fails to load
+		long version = snapshot.version() + 1;
+		preload(version);
+
+		logger.info("Reloaded field mapping catalog: version {}, {} tools", version, snapshot.toolMap().size());
+		return version;
+	}
+
+	private synchronized void preload(long version) {
+		Map<Integer, ToolFieldMapping> toolMap = readOnlyTransaction.execute(status -> {
+			Map<Integer, ToolFieldMapping> loadedToolMap = new HashMap<>();
+			for (ToolMasterEntity toolEntity : toolDao.findAll()) {
+				loadedToolMap.put(toolEntity.getToolId(), toToolFieldMapping(toolEntity.getToolId(), toolEntity));
+			}
+			return loadedToolMap;
+		});
+		snapshot = new CatalogSnapshot(version, Collections.unmodifiableMap(toolMap));
+	}
+
+	private synchronized ToolFieldMapping load(int toolId) {
+		CatalogSnapshot current = snapshot;
+		ToolFieldMapping toolFieldMapping = current.toolMap().get(toolId);
+		if (toolFieldMapping != null)
+			return toolFieldMapping;
+
+		toolFieldMapping = readOnlyTransaction.execute(
+			status -> toToolFieldMapping(toolId, toolDao.findById(toolId).orElse(null)));
+		// an unknown tool (or one without fields yet) is looked up again, it may be added without a reload
+		if (toolFieldMapping.fields().isEmpty())
+			return toolFieldMapping;
+
+		Map<Integer, ToolFieldMapping> toolMap = new HashMap<>(current.toolMap());
+		toolMap.put(toolId, toolFieldMapping);
+		snapshot = new CatalogSnapshot(current.version(), Collections.unmodifiableMap(toolMap));
+		return toolFieldMapping;
+	}
+
+	private ToolFieldMapping toToolFieldMapping(int toolId, ToolMasterEntity toolEntity) {
+		if (toolEntity == null)
+			return new ToolFieldMapping(toolId, List.of(), Map.of());
+
+		List<FieldMappingMstEntity> fieldMstEntityList = toolEntity.getFieldMappingMstEntityList();
+		List<FieldMappingMstTO> fields = new ArrayList<>(fieldMstEntityList.size());
+		Map<FieldMappingKey, Integer> slotMap = new HashMap<>(fieldMstEntityList.size());
+
+		for (FieldMappingMstEntity fieldMstEntity : fieldMstEntityList) {
+			FieldMappingMstTO fieldMstTO = new FieldMappingMstTO();
+			BeanUtils.copyProperties(fieldMstEntity, fieldMstTO);
+			fieldMstTO.setDataCategoryName(fieldMstEntity.getDataCategoryMasterEntity().getDataCategoryName());
+
+			slotMap.putIfAbsent(new FieldMappingKey(fieldMstTO.getDataCategoryId(), fieldMstTO.getKey()), fields.size());
+			fields.add(fieldMstTO);
+		}
+		return new ToolFieldMapping(toolId, List.copyOf(fields), Collections.unmodifiableMap(slotMap));
+	}
+
+	private record CatalogSnapshot(long version, Map<Integer, ToolFieldMapping> toolMap) {}
+}
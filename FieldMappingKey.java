@@ -0,0 +1,6 @@
+package com.lti.knowledge.service.impl;
+
+/**
+ * Identity of a field of the field mapping master within a tool
+ */
+record FieldMappingKey(int dataCategoryId, String key) {}
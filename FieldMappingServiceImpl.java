@@ -2,22 +2,31 @@ package com.lti.knowledge.service.impl;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import javax.persistence.EntityManager;
 import javax.persistence.criteria.CriteriaBuilder;
-import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaDelete;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 
 import org.apache.commons.lang.StringUtils;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.ObjectUtils;
 
 import com.lti.common.constants.CommonConstants;
@@ -27,11 +36,10 @@ import com.lti.common.utils.CustomValidators;
 import com.lti.knowledge.dao.FieldMappingDao;
 import com.lti.knowledge.dao.FieldMappingMstDao;
 import com.lti.knowledge.dao.ProjectConnectorMappingDAO;
-import com.lti.knowledge.dao.ToolDAO;
+import com.lti.knowledge.entities.ConnectorHubEntity;
 import com.lti.knowledge.entities.FieldMappingEntity;
-import com.lti.knowledge.entities.FieldMappingMstEntity;
 import com.lti.knowledge.entities.ProjectConnectorMappingEntity;
-import com.lti.knowledge.entities.ToolMasterEntity;
+import com.lti.knowledge.service.CKMuxConnectorHubService;
 import com.lti.knowledge.to.FieldMappingMstTO;
 
 @Service
@@ -40,9 +48,6 @@ public class FieldMappingServiceImpl {
 	@Autowired
 	private ProjectConnectorMappingDAO pcmDao;
 
-	@Autowired
-	private ToolDAO toolDao;
-
 	@Autowired
 	private FieldMappingDao fieldMappingDao;
 
@@ -52,88 +57,192 @@ public class FieldMappingServiceImpl {
 	@Autowired
 	private EntityManager entityManager;
 
+	@Autowired
+	private FieldMappingCatalog fieldMappingCatalog;
+
+	@Autowired
+	private CKMuxConnectorHubService connectorHubService;
+
+	@Value("${field-mapping.resolved.cache.ttl-seconds:300}")
+	private long resolvedFieldMappingCacheTtlSeconds;
+
+	// projectConnectorId -> master defaults overridden by the PCM mapping
+	private final Map<Integer, ResolvedFieldMapping> resolvedFieldMappingCache = new ConcurrentHashMap<>();
+
+	/**
+	 * Field mapping master of the tool from the {@link FieldMappingCatalog}, copied so the caller can modify it
+	 */
 	public List<FieldMappingMstTO> getFieldMappingMstDetails(Integer toolId) {
-		List<FieldMappingMstTO> result = new ArrayList<>();
-		Optional<ToolMasterEntity> toolEntityOpt = toolDao.findById(toolId);
-		if (toolEntityOpt.isPresent()) {
-			ToolMasterEntity toolEntity = toolEntityOpt.get();
-			if (toolEntity != null) {
-				List<FieldMappingMstEntity> fieldMstEntityList = toolEntity.getFieldMappingMstEntityList();
-				List<FieldMappingMstTO> fieldMasterTOList = new ArrayList<>();
-				fieldMstEntityList.forEach(fieldMstEntity -> {
-					FieldMappingMstTO fieldMstTO = new FieldMappingMstTO();
-					BeanUtils.copyProperties(fieldMstEntity, fieldMstTO);
-					fieldMstTO.setDataCategoryName(fieldMstEntity.getDataCategoryMasterEntity().getDataCategoryName());
-					fieldMasterTOList.add(fieldMstTO);
-				});
-				result.addAll(fieldMasterTOList);
-			}
-		}
+		List<FieldMappingMstTO> fieldMappingMstList = fieldMappingCatalog.get(toolId).fields();
+		List<FieldMappingMstTO> result = new ArrayList<>(fieldMappingMstList.size());
+		fieldMappingMstList.forEach(fieldMappingMstTO -> {
+			FieldMappingMstTO fieldMstTO = new FieldMappingMstTO();
+			BeanUtils.copyProperties(fieldMappingMstTO, fieldMstTO);
+			result.add(fieldMstTO);
+		});
 		return result;
 	}
 
+	/**
+	 * Reloads the field mapping master, to be called after the master data is changed
+	 *
+	 * @return version of the reloaded catalog
+	 */
+	public long reloadFieldMappingMstDetails() {
+		// the connector hub serves the tool master too
+		connectorHubService.invalidateConnectors();
+		return fieldMappingCatalog.reload();
+	}
+
 	public Map<String, Object> getFieldMappingDetails(Integer projectConnectorId) {
 		Map<String, Object> result = new HashMap<>();
 		Optional<ProjectConnectorMappingEntity> projectConnectorMappingObj = pcmDao.findById(projectConnectorId);
 		if (projectConnectorMappingObj.isPresent()) {
 			ProjectConnectorMappingEntity projConnectorEntity = projectConnectorMappingObj.get();
 			result.put("fieldMappingDetails", getFieldMappingDetails(projConnectorEntity, false));
-			result.put("default", projConnectorEntity.getFieldMappingEntityList().isEmpty());
+			result.put("default", resolveFieldMapping(projConnectorEntity).isDefault());
 			result.put("projectConnectorId", projectConnectorId);
 		}
 		return result;
 	}
 
 	public List<FieldMappingTO> getFieldMappingDetails(ProjectConnectorMappingEntity pcmEntity, boolean excludeEmpty) {
+		return toFieldMappingDetails(resolveFieldMapping(pcmEntity), excludeEmpty);
+	}
 
-		List<FieldMappingMstTO> fieldMappingMstList =
-			getFieldMappingMstDetails(pcmEntity.getConnectorHubEntity().getToolId());
-		List<FieldMappingEntity> fieldMappingOfPCMList = pcmEntity.getFieldMappingEntityList();
+	/**
+	 * Field mapping of the tool, overridden by the mapping of the PCM. A new PCM has the default mapping of the tool
+	 */
+	public List<FieldMappingTO> getFieldMappingDetails(Integer toolId, List<FieldMappingEntity> fieldMappingOfPCMList,
+		boolean excludeEmpty) {
+		return toFieldMappingDetails(resolveFieldMapping(fieldMappingCatalog.get(toolId), fieldMappingOfPCMList),
+			excludeEmpty);
+	}
 
-		List<FieldMappingTO> fieldMappingDetails = new ArrayList<>(fieldMappingMstList.size());
-		if (fieldMappingOfPCMList.isEmpty()) {
-			for (FieldMappingMstTO fieldMappingMstTO : fieldMappingMstList) {
-				if (excludeEmpty && StringUtils.isEmpty(fieldMappingMstTO.getValue())) {
+	/**
+	 * Field mapping of the tool, overridden by the mapping submitted with a PCM that isn't saved yet.
+	 * Fields unknown to the tool and the fixed fields keep the mapping of the tool
+	 */
+	public List<FieldMappingTO> getSubmittedFieldMappingDetails(ConnectorHubEntity connectorHubEntity,
+		List<FieldMappingTO> submittedMappings, boolean excludeEmpty) {
+		String toolName = connectorHubEntity.getToolMasterEntity().getToolName();
+
+		List<FieldMappingEntity> fieldMappingOfPCMList = new ArrayList<>();
+		if (submittedMappings != null) {
+			for (FieldMappingTO mapping : submittedMappings) {
+				if (mapping.getKey() == null || isFixedField(toolName, mapping.getKey()))
 					continue;
-				}
-				FieldMappingTO fieldMappingTO = new FieldMappingTO();
-				BeanUtils.copyProperties(fieldMappingMstTO, fieldMappingTO);
-				fieldMappingTO.setDataCategoryName(fieldMappingMstTO.getDataCategoryName());
-				fieldMappingDetails.add(fieldMappingTO);
+				FieldMappingEntity fieldMapping = new FieldMappingEntity();
+				fieldMapping.setDataCategoryId(mapping.getDataCategoryId());
+				fieldMapping.setKey(mapping.getKey());
+				fieldMapping.setValue(StringUtils.trim(mapping.getValue()));
+				fieldMappingOfPCMList.add(fieldMapping);
 			}
-		} else {
-			HashMap<Integer, HashMap<String, String>> fieldMappingOfPCMGroupByEntityAndKey = new HashMap<>();
-			fieldMappingOfPCMList.forEach(f -> {
-				if (!fieldMappingOfPCMGroupByEntityAndKey.containsKey(f.getDataCategoryId())) {
-					fieldMappingOfPCMGroupByEntityAndKey.put(f.getDataCategoryId(), new HashMap<>());
-				}
-				fieldMappingOfPCMGroupByEntityAndKey.get(f.getDataCategoryId()).put(f.getKey(), f.getValue());
-			});
-			for (FieldMappingMstTO fieldMappingMstTO : fieldMappingMstList) {
-				String value = fieldMappingMstTO.getValue();
-
-				if (fieldMappingOfPCMGroupByEntityAndKey.containsKey(fieldMappingMstTO.getDataCategoryId())
-					&& fieldMappingOfPCMGroupByEntityAndKey.get(fieldMappingMstTO.getDataCategoryId())
-					.containsKey(fieldMappingMstTO.getKey())) {
-					value = fieldMappingOfPCMGroupByEntityAndKey.get(fieldMappingMstTO.getDataCategoryId())
-						.get(fieldMappingMstTO.getKey());
-				}
-
-				if (excludeEmpty && StringUtils.isEmpty(value)) {
-					continue;
-				}
+		}
+		return getFieldMappingDetails(connectorHubEntity.getToolId(), fieldMappingOfPCMList, excludeEmpty);
+	}
+
+	/**
+	 * Resolved field mapping of the PCM, cached per PCM.
+	 * <ul>
+	 * <li>The cached mapping is used only while the version of the PCM mapping rows loaded with the entity
+	 * matches, so a mapping saved on another node is picked up on the next lookup</li>
+	 * <li>A reload of the catalog replaces the ToolFieldMapping, which also misses the cache</li>
+	 * <li>The TTL only bounds how long the mapping of an idle PCM is kept</li>
+	 * </ul>
+	 */
+	ResolvedFieldMapping resolveFieldMapping(ProjectConnectorMappingEntity pcmEntity) {
+		int projectConnectorId = pcmEntity.getProjectConnectorId();
+		ToolFieldMapping toolFieldMapping = fieldMappingCatalog.get(pcmEntity.getConnectorHubEntity().getToolId());
+		List<FieldMappingEntity> fieldMappingOfPCMList = pcmEntity.getFieldMappingEntityList();
+		long mappingVersion = mappingVersion(fieldMappingOfPCMList);
+		long now = System.nanoTime();
+
+		ResolvedFieldMapping resolved = resolvedFieldMappingCache.get(projectConnectorId);
+		if (resolved != null && resolved.toolFieldMapping() == toolFieldMapping
+			&& resolved.mappingVersion() == mappingVersion && now - resolved.expiresAtNanos() < 0) {
+			return resolved;
+		}
+
+		resolved = resolveFieldMapping(toolFieldMapping, fieldMappingOfPCMList)
+			.withVersion(mappingVersion, now + TimeUnit.SECONDS.toNanos(resolvedFieldMappingCacheTtlSeconds));
+		resolvedFieldMappingCache.put(projectConnectorId, resolved);
+		return resolved;
+	}
 
-				FieldMappingTO fieldMappingTO = new FieldMappingTO();
-				BeanUtils.copyProperties(fieldMappingMstTO, fieldMappingTO);
-				fieldMappingTO.setValue(value);
-				fieldMappingTO.setDataCategoryName(fieldMappingMstTO.getDataCategoryName());
-				fieldMappingDetails.add(fieldMappingTO);
+	/**
+	 * Version of the PCM mapping rows, independent of their order
+	 */
+	private static long mappingVersion(List<FieldMappingEntity> fieldMappingOfPCMList) {
+		long version = fieldMappingOfPCMList.size();
+		for (FieldMappingEntity fieldMapping : fieldMappingOfPCMList) {
+			long hash = Objects.hash(fieldMapping.getDataCategoryId(), fieldMapping.getKey(), fieldMapping.getValue());
+			version += hash * 0x9E3779B97F4A7C15L;
+		}
+		return version;
+	}
+
+	/**
+	 * Drops the resolved field mapping of the PCM, after its mapping is changed or the PCM is deleted.
+	 * Within a transaction it is dropped once the transaction commits, so the mapping being replaced
+	 * can't be cached again in between
+	 */
+	public void invalidateFieldMapping(int projectConnectorId) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			resolvedFieldMappingCache.remove(projectConnectorId);
+			return;
+		}
+
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				resolvedFieldMappingCache.remove(projectConnectorId);
+			}
+		});
+	}
+
+	private ResolvedFieldMapping resolveFieldMapping(ToolFieldMapping toolFieldMapping,
+		List<FieldMappingEntity> fieldMappingOfPCMList) {
+
+		List<FieldMappingMstTO> fieldMappingMstList = toolFieldMapping.fields();
+		String[] values = new String[fieldMappingMstList.size()];
+		for (int slot = 0; slot < values.length; slot++) {
+			values[slot] = fieldMappingMstList.get(slot).getValue();
+		}
+
+		for (FieldMappingEntity fieldMapping : fieldMappingOfPCMList) {
+			int slot = toolFieldMapping.slot(fieldMapping.getDataCategoryId(), fieldMapping.getKey());
+			if (slot >= 0) {
+				values[slot] = fieldMapping.getValue();
+			}
+		}
+
+		return new ResolvedFieldMapping(toolFieldMapping, values, fieldMappingOfPCMList.isEmpty(), 0, 0);
+	}
+
+	private List<FieldMappingTO> toFieldMappingDetails(ResolvedFieldMapping resolved, boolean excludeEmpty) {
+		// catalog fields are read-only, the details are built from copies
+		List<FieldMappingMstTO> fieldMappingMstList = resolved.toolFieldMapping().fields();
+
+		List<FieldMappingTO> fieldMappingDetails = new ArrayList<>(fieldMappingMstList.size());
+		for (int slot = 0; slot < fieldMappingMstList.size(); slot++) {
+			String value = resolved.value(slot);
+			if (excludeEmpty && StringUtils.isEmpty(value)) {
+				continue;
 			}
+
+			FieldMappingMstTO fieldMappingMstTO = fieldMappingMstList.get(slot);
+			FieldMappingTO fieldMappingTO = new FieldMappingTO();
+			BeanUtils.copyProperties(fieldMappingMstTO, fieldMappingTO);
+			fieldMappingTO.setValue(value);
+			fieldMappingTO.setDataCategoryName(fieldMappingMstTO.getDataCategoryName());
+			fieldMappingDetails.add(fieldMappingTO);
 		}
 
 		return fieldMappingDetails;
 	}
 
+	@Transactional(rollbackFor = CustomException.class)
 	public boolean saveFieldMappingDetails(int projectConnectorId, boolean isDefault,
 		List<FieldMappingTO> changedMappings) throws CustomException {
 
@@ -152,72 +261,217 @@ public class FieldMappingServiceImpl {
 		int toolId = pcmEntity.getConnectorHubEntity().getToolId();
 		String toolName = pcmEntity.getConnectorHubEntity().getToolMasterEntity().getToolName();
 
+		Map<FieldMappingKey, String> changedValueMap =
+			validateFieldMappingChanges(changedMappings, fieldMappingCatalog.get(toolId), toolName, false);
+
+		applyFieldMappingChanges(toolId, changedValueMap, List.of(projectConnectorId));
+
+		return true;
+	}
+
+	/**
+	 * Applies the field mapping template to the PCMs in one transaction
+	 *
+	 * <li>The template is validated once per tool of the PCMs, against the master catalog
+	 * <li>Fields of the template not in the tool of a PCM are skipped for it, a field in none of the tools is rejected
+	 * <li>Master fields are fetched and the reverted overrides deleted once per tool
+	 *
+	 * @return number of PCMs the template was applied to
+	 */
+	@Transactional(rollbackFor = CustomException.class)
+	public int applyFieldMappingTemplate(Set<Integer> projectConnectorIds, List<FieldMappingTO> templateMappings)
+		throws CustomException {
+
+		if (ObjectUtils.isEmpty(projectConnectorIds)) {
+			throw new CustomException(HttpStatus.BAD_REQUEST, "Project Connector Ids cannot be empty");
+		}
+		if (ObjectUtils.isEmpty(templateMappings)) {
+			throw new CustomException(HttpStatus.BAD_REQUEST, "Field Mapping Template cannot be empty");
+		}
+		for (Integer projectConnectorId : projectConnectorIds) {
+			CustomValidators.validateNegative(projectConnectorId, "Project Connector Id");
+		}
+
+		List<ProjectConnectorMappingEntity> pcmEntityList = pcmDao.findAllById(projectConnectorIds);
+		if (pcmEntityList.size() != projectConnectorIds.size()) {
+			Set<Integer> missingIds = new HashSet<>(projectConnectorIds);
+			pcmEntityList.forEach(pcmEntity -> missingIds.remove(pcmEntity.getProjectConnectorId()));
+			throw new CustomException(HttpStatus.BAD_REQUEST,
+				"Project Connector Mapping does not exists for IDs: " + missingIds);
+		}
+
+		Map<Integer, List<ProjectConnectorMappingEntity>> pcmGroupByTool = pcmEntityList.stream()
+			.collect(Collectors.groupingBy(pcmEntity -> pcmEntity.getConnectorHubEntity().getToolId()));
+
+		Map<Integer, Map<FieldMappingKey, String>> changedValueMapByTool = new HashMap<>(pcmGroupByTool.size());
+		Set<FieldMappingKey> knownKeys = new HashSet<>();
+		for (Map.Entry<Integer, List<ProjectConnectorMappingEntity>> entry : pcmGroupByTool.entrySet()) {
+			String toolName = entry.getValue().get(0).getConnectorHubEntity().getToolMasterEntity().getToolName();
+			ToolFieldMapping toolFieldMapping = fieldMappingCatalog.get(entry.getKey());
+			Map<FieldMappingKey, String> changedValueMap =
+				validateFieldMappingChanges(templateMappings, toolFieldMapping, toolName, true);
+
+			changedValueMapByTool.put(entry.getKey(), changedValueMap);
+			knownKeys.addAll(toolFieldMapping.slotMap().keySet());
+		}
+
+		for (FieldMappingTO mapping : templateMappings) {
+			if (!knownKeys.contains(new FieldMappingKey(mapping.getDataCategoryId(), mapping.getKey()))) {
+				throw new CustomException(HttpStatus.BAD_REQUEST, "Field Mapping Template is not valid for Tool IDs: "
+					+ pcmGroupByTool.keySet() + " (" + mapping.getDataCategoryId() + ", " + mapping.getKey() + ")");
+			}
+		}
+
+		for (Map.Entry<Integer, List<ProjectConnectorMappingEntity>> entry : pcmGroupByTool.entrySet()) {
+			Map<FieldMappingKey, String> changedValueMap = changedValueMapByTool.get(entry.getKey());
+			if (changedValueMap.isEmpty())
+				continue;
+
+			applyFieldMappingChanges(entry.getKey(), changedValueMap,
+				entry.getValue().stream().map(ProjectConnectorMappingEntity::getProjectConnectorId).toList());
+		}
+
+		return pcmEntityList.size();
+	}
+
+	/**
+	 * Field mapping of the PCMs, to be used as a template for {@link #applyFieldMappingTemplate}.
+	 * Excel Id/Type fields are fixed, they are left out
+	 *
+	 * @return projectConnectorId -> field mapping, missing PCMs are left out
+	 */
+	public Map<Integer, List<FieldMappingTO>> exportFieldMappingDetails(Set<Integer> projectConnectorIds) {
+		Map<Integer, List<FieldMappingTO>> result = new HashMap<>(projectConnectorIds.size());
+		for (ProjectConnectorMappingEntity pcmEntity : pcmDao.findAllById(projectConnectorIds)) {
+			String toolName = pcmEntity.getConnectorHubEntity().getToolMasterEntity().getToolName();
+			result.put(pcmEntity.getProjectConnectorId(), getFieldMappingDetails(pcmEntity, false).stream()
+				.filter(mapping -> !isFixedField(toolName, mapping.getKey())).toList());
+		}
+		return result;
+	}
+
+	/**
+	 * (dataCategoryId, key) -> trimmed value of the changes valid for the tool
+	 *
+	 * @param skipUnknown fields not in the tool are skipped instead of rejected
+	 */
+	private Map<FieldMappingKey, String> validateFieldMappingChanges(List<FieldMappingTO> changedMappings,
+		ToolFieldMapping toolFieldMapping, String toolName, boolean skipUnknown) throws CustomException {
+
+		Map<FieldMappingKey, String> changedValueMap = new HashMap<>(changedMappings.size());
 		for (FieldMappingTO mapping : changedMappings) {
 			CustomValidators.validateNegative(mapping.getDataCategoryId(), "Data Category Id");
 			CustomValidators.validateNull(mapping.getKey(), "Field Mapping Key");
-			if (CommonConstants.Tool.EXCEL.label.equals(toolName) && (mapping.getKey().equals("id") || mapping.getKey()
-				.equals("type"))) {
+
+			// validated against the catalog, no lookup for invalid/duplicate changes
+			FieldMappingKey key = new FieldMappingKey(mapping.getDataCategoryId(), mapping.getKey());
+			if (toolFieldMapping.slot(key.dataCategoryId(), key.key()) < 0) {
+				if (skipUnknown)
+					continue;
 				throw new CustomException(HttpStatus.BAD_REQUEST,
-					"Field Mapping for Id/Type is not allowed to " + "change");
+					"Field Mapping Changed Details are not valid for Tool ID: " + toolFieldMapping.toolId());
 			}
-		}
 
-		List<FieldMappingMstEntity> fieldMappingMstOfChangedIdList =
-			findAllByDataCategoryAndKeyPairs(changedMappings, toolId);
+			if (isFixedField(toolName, mapping.getKey())) {
+				// a fixed field carried with its master value (e.g. by a template) is not a change
+				if (StringUtils.equals(StringUtils.trim(mapping.getValue()),
+					toolFieldMapping.find(key.dataCategoryId(), key.key()).getValue()))
+					continue;
+				throw new CustomException(HttpStatus.BAD_REQUEST,
+					"Field Mapping for Id/Type is not allowed to " + "change");
+			}
 
-		if (fieldMappingMstOfChangedIdList.size() != changedMappings.size()) {
-			throw new CustomException(HttpStatus.BAD_REQUEST,
-				"Field Mapping Changed Details are not valid for Tool ID: " + toolId);
+			if (changedValueMap.putIfAbsent(key, StringUtils.trim(mapping.getValue())) != null) {
+				throw new CustomException(HttpStatus.BAD_REQUEST,
+					"Field Mapping Changed Details are not valid for Tool ID: " + toolFieldMapping.toolId());
+			}
 		}
+		return changedValueMap;
+	}
+
+	private boolean isFixedField(String toolName, String key) {
+		return CommonConstants.Tool.EXCEL.label.equals(toolName) && ("id".equals(key) || "type".equals(key));
+	}
 
-		HashMap<Integer, HashMap<String, String>> changedMappingsGroupByEntityAndKey = new HashMap<>();
-		changedMappings.forEach(changes -> {
-			int dataCategoryId = changes.getDataCategoryId();
+	/**
+	 * Overrides the master fields for the PCMs of the tool, the fields changed back to the master value are removed
+	 */
+	private void applyFieldMappingChanges(int toolId, Map<FieldMappingKey, String> changedValueMap,
+		List<Integer> projectConnectorIds) {
 
-			if (!changedMappingsGroupByEntityAndKey.containsKey(dataCategoryId)) {
-				changedMappingsGroupByEntityAndKey.put(dataCategoryId, new HashMap<>());
-			}
-			changedMappingsGroupByEntityAndKey.get(dataCategoryId)
-				.put(changes.getKey(), StringUtils.trim(changes.getValue()));
-		});
+		// master values from the catalog the changes were validated against, no query per save
+		ToolFieldMapping toolFieldMapping = fieldMappingCatalog.get(toolId);
 
-		List<FieldMappingEntity> fieldMappingUnchangedListToDelete = new ArrayList<>();
+		Map<FieldMappingKey, String> unchangedValueMap = new HashMap<>();
 		List<FieldMappingEntity> fieldMappingChangedListToSave =
-			fieldMappingMstOfChangedIdList.stream().map(mstEntity -> {
-				String changedValue =
-					changedMappingsGroupByEntityAndKey.get(mstEntity.getDataCategoryId()).get(mstEntity.getKey());
+			new ArrayList<>(changedValueMap.size() * projectConnectorIds.size());
+		for (Map.Entry<FieldMappingKey, String> change : changedValueMap.entrySet()) {
+			FieldMappingKey key = change.getKey();
+			String changedValue = change.getValue();
+			FieldMappingMstTO fieldMappingMstTO = toolFieldMapping.find(key.dataCategoryId(), key.key());
+			if (fieldMappingMstTO == null)
+				continue;
+
+			if (StringUtils.equals(fieldMappingMstTO.getValue(), changedValue)) {
+				unchangedValueMap.put(key, changedValue);
+				continue;
+			}
 
+			for (Integer projectConnectorId : projectConnectorIds) {
 				FieldMappingEntity entity = new FieldMappingEntity();
-				BeanUtils.copyProperties(mstEntity, entity);
+				BeanUtils.copyProperties(fieldMappingMstTO, entity);
 				entity.setProjectConnectorId(projectConnectorId);
 				entity.setValue(changedValue);
+				fieldMappingChangedListToSave.add(entity);
+			}
+		}
 
-				if (StringUtils.equals(mstEntity.getValue(), changedValue)) {
-					fieldMappingUnchangedListToDelete.add(entity);
-					return null;
-				}
-				return entity;
-			}).filter(Objects::nonNull).toList();
+		// fields changed back to the master value need no override
+		if (!unchangedValueMap.isEmpty())
+			deleteAllByDataCategoryAndKeyPairs(unchangedValueMap.keySet(), projectConnectorIds);
+		if (!fieldMappingChangedListToSave.isEmpty())
+			fieldMappingDao.saveAll(fieldMappingChangedListToSave);
+		projectConnectorIds.forEach(this::invalidateFieldMapping);
+	}
 
-		if (!fieldMappingUnchangedListToDelete.isEmpty())
-			fieldMappingDao.deleteAllInBatch(fieldMappingUnchangedListToDelete);
-		if (!fieldMappingChangedListToSave.isEmpty()) fieldMappingDao.saveAll(fieldMappingChangedListToSave);
+	int deleteAllByDataCategoryAndKeyPairs(Set<FieldMappingKey> pairs, List<Integer> projectConnectorIds) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaDelete<FieldMappingEntity> delete = cb.createCriteriaDelete(FieldMappingEntity.class);
+		Root<FieldMappingEntity> root = delete.from(FieldMappingEntity.class);
 
-		return true;
+		delete.where(cb.and(root.get("projectConnectorId").in(projectConnectorIds),
+			dataCategoryAndKeyPredicate(cb, root, pairs)));
+
+		return entityManager.createQuery(delete).executeUpdate();
 	}
 
-	List<FieldMappingMstEntity> findAllByDataCategoryAndKeyPairs(List<FieldMappingTO> pairs, int toolId) {
-		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-		CriteriaQuery<FieldMappingMstEntity> query = cb.createQuery(FieldMappingMstEntity.class);
-		Root<FieldMappingMstEntity> root = query.from(FieldMappingMstEntity.class);
+	private Predicate dataCategoryAndKeyPredicate(CriteriaBuilder cb, Root<?> root, Set<FieldMappingKey> pairs) {
+		Map<Integer, List<String>> keysGroupByDataCategory = pairs.stream().collect(Collectors.groupingBy(
+			FieldMappingKey::dataCategoryId, Collectors.mapping(FieldMappingKey::key, Collectors.toList())));
 
-		List<Predicate> predicates = pairs.stream()
-			.map(pair -> cb.and(cb.equal(root.get("dataCategoryId"), pair.getDataCategoryId()),
-				cb.equal(root.get("key"), pair.getKey())))
+		List<Predicate> predicates = keysGroupByDataCategory.entrySet().stream()
+			.map(entry -> cb.and(cb.equal(root.get("dataCategoryId"), entry.getKey()),
+				root.get("key").in(entry.getValue())))
 			.toList();
 
-		query.where(cb.and(cb.equal(root.get("toolId"), toolId), cb.or(predicates.toArray(new Predicate[0]))));
+		return cb.or(predicates.toArray(new Predicate[0]));
+	}
+
+	/**
+	 * Field mapping of a PCM, values[slot] is the PCM value of the catalog field in the slot, else its default
+	 *
+	 * @param isDefault the PCM has no mapping of its own
+	 * @param mappingVersion version of the PCM mapping rows the values were resolved from
+	 */
+	record ResolvedFieldMapping(ToolFieldMapping toolFieldMapping, String[] values, boolean isDefault,
+		long mappingVersion, long expiresAtNanos) {
+
+		String value(int slot) {
+			return values[slot];
+		}
 
-		return entityManager.createQuery(query).getResultList();
+		ResolvedFieldMapping withVersion(long mappingVersion, long expiresAtNanos) {
+			return new ResolvedFieldMapping(toolFieldMapping, values, isDefault, mappingVersion, expiresAtNanos);
+		}
 	}
 }
@@ -0,0 +1,146 @@
+package com.lti.knowledge.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Execution mode of the blocking outbound I/O (Tool services, WSO2, secret store, ML service).
+ *
+ * <li>platform (default): Tomcat request threads, connectorSyncTaskExecutor and Reactor bounded elastic
+ * <li>virtual: all of the above run on virtual threads, so request and sync concurrency is no longer capped
+ * by the pool sizes. Requires Java 21, falls back to platform mode otherwise.
+ *
+ * In virtual mode pinned virtual threads are reported through JFR (jdk.VirtualThreadPinned).
+ */
+@Configuration
+public class IoExecutionConfig {
+
+	private static final Logger logger = LoggerFactory.getLogger(IoExecutionConfig.class);
+
+	private static final String VIRTUAL = "virtual";
+	private static final String VIRTUAL_THREAD_PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+	@Value("${io.execution.mode:platform}")
+	private String executionMode;
+
+	@Value("${io.execution.pinned-threshold-ms:20}")
+	private long pinnedThresholdMs;
+
+	private final Counter pinnedCounter;
+
+	private ExecutorService virtualThreadExecutor = null;
+	private Scheduler blockingScheduler = Schedulers.boundedElastic();
+	private RecordingStream pinnedEventStream = null;
+
+	public IoExecutionConfig(MeterRegistry meterRegistry) {
+		pinnedCounter = meterRegistry.counter("io.virtual-thread.pinned");
+	}
+
+	@PostConstruct
+	private void setup() {
+		if (!VIRTUAL.equalsIgnoreCase(executionMode))
+			return;
+
+		try {
+			virtualThreadExecutor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+				.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			logger.warn("Virtual threads are not supported by this JVM, falling back to platform threads");
+			return;
+		}
+
+		blockingScheduler = Schedulers.fromExecutorService(virtualThreadExecutor, "io-virtual");
+		startPinnedThreadDiagnostics();
+
+		logger.info("Outbound I/O is running on virtual threads");
+	}
+
+	private void startPinnedThreadDiagnostics() {
+		try {
+			pinnedEventStream = new RecordingStream();
+			pinnedEventStream.enable(VIRTUAL_THREAD_PINNED_EVENT)
+				.withThreshold(Duration.ofMillis(pinnedThresholdMs))
+				.withStackTrace();
+			pinnedEventStream.onEvent(VIRTUAL_THREAD_PINNED_EVENT, this::reportPinnedThread);
+			pinnedEventStream.startAsync();
+		} catch (Exception e) {
+			// diagnostics are best effort
+			logger.warn("Failed to start pinned virtual thread diagnostics", e);
+		}
+	}
+
+	private void reportPinnedThread(RecordedEvent event) {
+		pinnedCounter.increment();
+
+		String frames = "";
+		if (event.getStackTrace() != null) {
+			List<RecordedFrame> topFrames = event.getStackTrace().getFrames().stream().limit(5).toList();
+			frames = topFrames.stream()
+				.map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":"
+					+ frame.getLineNumber())
+				.collect(Collectors.joining(" <- "));
+		}
+		logger.warn("Virtual thread pinned for {} ms at {}", event.getDuration().toMillis(), frames);
+	}
+
+	@PreDestroy
+	private void shutdown() {
+		if (pinnedEventStream != null)
+			pinnedEventStream.close();
+		if (virtualThreadExecutor != null)
+			virtualThreadExecutor.shutdown();
+	}
+
+	/**
+	 * Tomcat request threads, covers the outbound calls made while serving a request
+	 * (verifyConfigDetailsWithToolServices, fetchProject, ML rule based calls)
+	 */
+	@Bean
+	public TomcatProtocolHandlerCustomizer<?> ioExecutionTomcatCustomizer() {
+		return protocolHandler -> {
+			if (virtualThreadExecutor != null) {
+				protocolHandler.setExecutor(virtualThreadExecutor);
+			}
+		};
+	}
+
+	public boolean isVirtual() {
+		return virtualThreadExecutor != null;
+	}
+
+	/**
+	 * @return virtual thread executor in virtual mode, otherwise the provided platform executor
+	 */
+	public Executor executor(Executor platformExecutor) {
+		return virtualThreadExecutor != null ? virtualThreadExecutor : platformExecutor;
+	}
+
+	/**
+	 * Scheduler for the blocking steps of reactive pipelines
+	 */
+	public Scheduler blockingScheduler() {
+		return blockingScheduler;
+	}
+}
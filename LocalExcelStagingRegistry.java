@@ -0,0 +1,76 @@
+package com.lti.knowledge.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * In memory staging registry, for a single instance deployment.
+ * Staged files are ordered by purge deadline, entries removed meanwhile are skipped when they expire.
+ */
+@Service
+@ConditionalOnProperty(name = "excel.staging.registry", havingValue = "local", matchIfMissing = true)
+public class LocalExcelStagingRegistry implements ExcelStagingRegistry {
+
+	// uuid -> staged file
+	private final Map<String, StagedExcelFile> stagedFileMap = new ConcurrentHashMap<>();
+
+	private final DelayQueue<StagedExcelFile> purgeQueue = new DelayQueue<>();
+	private final AtomicLong stagedBytes = new AtomicLong();
+
+	@Override
+	public void register(StagedExcelFile stagedFile) {
+		StagedExcelFile previous = stagedFileMap.put(stagedFile.fileId(), stagedFile);
+		if (previous != null) {
+			stagedBytes.addAndGet(-previous.size());
+		}
+		stagedBytes.addAndGet(stagedFile.size());
+		purgeQueue.add(stagedFile);
+	}
+
+	@Override
+	public StagedExcelFile get(String fileId) {
+		return stagedFileMap.get(fileId);
+	}
+
+	@Override
+	public StagedExcelFile remove(String fileId) {
+		StagedExcelFile stagedFile = stagedFileMap.remove(fileId);
+		if (stagedFile != null) {
+			stagedBytes.addAndGet(-stagedFile.size());
+		}
+		return stagedFile;
+	}
+
+	@Override
+	public List<StagedExcelFile> awaitExpired() throws InterruptedException {
+		List<StagedExcelFile> expiredList = new ArrayList<>();
+
+		StagedExcelFile expired = purgeQueue.take();
+		do {
+			// committed files are no longer registered
+			if (stagedFileMap.remove(expired.fileId(), expired)) {
+				stagedBytes.addAndGet(-expired.size());
+				expiredList.add(expired);
+			}
+		} while ((expired = purgeQueue.poll()) != null);
+
+		return expiredList;
+	}
+
+	@Override
+	public int stagedCount() {
+		return stagedFileMap.size();
+	}
+
+	@Override
+	public long stagedBytes() {
+		return stagedBytes.get();
+	}
+}
@@ -1,10 +1,20 @@
 package com.lti.knowledge.service;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
 import com.lti.common.exception.CustomException;
+import com.lti.common.exception.Exceptions;
 import com.lti.knowledge.to.SecretsTO;
 
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
 public interface SecretsService {
-	
+
 	public void saveSecret(SecretsTO secretsInput,String secretId) throws CustomException;
 	
 	public void updateSecret(SecretsTO secretsInput,String secretId) throws CustomException;
@@ -12,6 +22,37 @@ public interface SecretsService {
 	public void deleteSecret(int pcmId, String secretId)throws CustomException;
 	
 	public String fetchAccessToken(int pcmId, String secretId)throws CustomException;
-	
+
+	/**
+	 * Fetches the access tokens of multiple PCMs.
+	 * Stores without native batching fan out {@link #fetchAccessToken} on the given scheduler,
+	 * implementations should override this if the backend supports batch reads
+	 *
+	 * @param scheduler scheduler of the blocking fetches, shared by the caller
+	 * @param parallelism max fetches in flight
+	 * @return pcmId -> accessToken
+	 */
+	public default Map<Integer, String> fetchAccessTokens(Collection<Integer> pcmIds, String secretId,
+		Scheduler scheduler, int parallelism) throws CustomException {
+		Map<Integer, String> result = Collections.synchronizedMap(new HashMap<>(pcmIds.size()));
+		if (pcmIds.isEmpty())
+			return result;
+
+		try {
+			Flux.fromIterable(pcmIds)
+				.flatMap(pcmId -> Mono.fromCallable(() -> {
+					result.put(pcmId, fetchAccessToken(pcmId, secretId));
+					return pcmId;
+				}).subscribeOn(scheduler), parallelism)
+				.then()
+				.block();
+		} catch (RuntimeException e) {
+			Throwable cause = reactor.core.Exceptions.unwrap(e);
+			if (cause instanceof CustomException customException)
+				throw customException;
+			throw new CustomException(Exceptions.ERROR050, cause);
+		}
+		return result;
+	}
 
 }
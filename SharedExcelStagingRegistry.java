@@ -0,0 +1,165 @@
+package com.lti.knowledge.service.impl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Staging registry on the assets volume (excel/.staging/{fileId}.json), shared by the instances mounting it.
+ *
+ * <li>An upload staged by one instance can be committed by any other
+ * <li>Every instance sweeps the registry, an expired entry is claimed by the instance that deletes it
+ * <li>Staged count and bytes are refreshed on each sweep
+ */
+@Service
+@ConditionalOnProperty(name = "excel.staging.registry", havingValue = "shared")
+public class SharedExcelStagingRegistry implements ExcelStagingRegistry {
+
+	private static final Logger logger = LoggerFactory.getLogger(SharedExcelStagingRegistry.class);
+
+	private static final String ENTRY_SUFFIX = ".json";
+
+	@Value("${assets.path}")
+	private String assetsPath;
+
+	@Value("${excel.staging.sweep-interval-ms:60000}")
+	private long sweepIntervalMs;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private Path registryDirectory;
+
+	private volatile int stagedCount = 0;
+	private volatile long stagedBytes = 0;
+
+	@PostConstruct
+	private void setup() throws IOException {
+		registryDirectory = Path.of(assetsPath, "excel", ".staging");
+		Files.createDirectories(registryDirectory);
+	}
+
+	@Override
+	public void register(StagedExcelFile stagedFile) {
+		Path entryPath = entryPath(stagedFile.fileId());
+		Path tempPath = entryPath.resolveSibling(entryPath.getFileName() + ".tmp");
+		try {
+			objectMapper.writeValue(tempPath.toFile(), stagedFile);
+			Files.move(tempPath, entryPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed to register the staged Excel file: " + stagedFile.fileId(), e);
+		}
+	}
+
+	@Override
+	public StagedExcelFile get(String fileId) {
+		if (!ExcelFileIndex.isFileId(fileId))
+			return null;
+		return read(entryPath(fileId));
+	}
+
+	@Override
+	public StagedExcelFile remove(String fileId) {
+		if (!ExcelFileIndex.isFileId(fileId))
+			return null;
+
+		Path entryPath = entryPath(fileId);
+		StagedExcelFile stagedFile = read(entryPath);
+		if (stagedFile == null)
+			return null;
+
+		try {
+			// only the instance deleting the entry owns it
+			return Files.deleteIfExists(entryPath) ? stagedFile : null;
+		} catch (IOException e) {
+			logger.error("Failed to remove the staged Excel file entry: {}", fileId, e);
+			return null;
+		}
+	}
+
+	@Override
+	public List<StagedExcelFile> awaitExpired() throws InterruptedException {
+		Thread.sleep(sweepIntervalMs);
+
+		List<StagedExcelFile> expiredList = new ArrayList<>();
+		int count = 0;
+		long bytes = 0;
+
+		try (Stream<Path> entryStream = Files.list(registryDirectory)) {
+			for (Path entryPath : (Iterable<Path>) entryStream::iterator) {
+				if (!entryPath.getFileName().toString().endsWith(ENTRY_SUFFIX))
+					continue;
+
+				StagedExcelFile stagedFile = read(entryPath);
+				if (stagedFile == null)
+					continue;
+
+				if (stagedFile.hasExpired()) {
+					if (Files.deleteIfExists(entryPath)) {
+						expiredList.add(stagedFile);
+					}
+				} else {
+					count++;
+					bytes += stagedFile.size();
+				}
+			}
+		} catch (IOException e) {
+			logger.error("Failed to sweep the Excel staging registry", e);
+		}
+
+		stagedCount = count;
+		stagedBytes = bytes;
+		return expiredList;
+	}
+
+	@Override
+	public boolean isShared() {
+		return true;
+	}
+
+	@Override
+	public int stagedCount() {
+		return stagedCount;
+	}
+
+	@Override
+	public long stagedBytes() {
+		return stagedBytes;
+	}
+
+	private StagedExcelFile read(Path entryPath) {
+		if (!Files.exists(entryPath))
+			return null;
+
+		try {
+			return objectMapper.readValue(entryPath.toFile(), StagedExcelFile.class);
+		} catch (IOException e) {
+			// removed by another instance while it was read
+			if (!Files.exists(entryPath))
+				return null;
+
+			logger.error("Failed to read the staged Excel file entry: {}", entryPath.getFileName(), e);
+			return null;
+		}
+	}
+
+	private Path entryPath(String fileId) {
+		ExcelFileIndex.requireFileId(fileId);
+		return registryDirectory.resolve(fileId + ENTRY_SUFFIX);
+	}
+}
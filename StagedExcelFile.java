@@ -0,0 +1,34 @@
+package com.lti.knowledge.service.impl;
+
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Excel file uploaded to the temp storage, registered in the {@link ExcelStagingRegistry} till it is committed or purged
+ *
+ * @param storedName name of the file in the temp storage, {fileId}.{ext}
+ * @param purgeAtMillis epoch millis, comparable across instances
+ */
+record StagedExcelFile(String fileId, String filename, String storedName, String sheets, long size, String sha256,
+	long purgeAtMillis) implements Delayed {
+
+	ExcelContentKey contentKey() {
+		return new ExcelContentKey(size, sha256);
+	}
+
+	boolean hasExpired() {
+		return System.currentTimeMillis() >= purgeAtMillis;
+	}
+
+	@Override
+	public long getDelay(TimeUnit unit) {
+		return unit.convert(purgeAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public int compareTo(Delayed other) {
+		if (other instanceof StagedExcelFile stagedFile)
+			return Long.compare(purgeAtMillis, stagedFile.purgeAtMillis);
+		return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+	}
+}
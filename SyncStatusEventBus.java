@@ -0,0 +1,66 @@
+package com.lti.knowledge.service.impl;
+
+import java.util.Collection;
+import java.util.Set;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.lti.common.to.ElasticSyncDetailsTO;
+import com.lti.common.to.SyncDetailsTO;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+/**
+ * In-process bus of sync status transitions, lets the UI subscribe (SSE/long-poll)
+ * instead of polling {@code checkPCMSyncStatus}/{@code checkElasticSyncStatus}.
+ *
+ * Only the transitions made by this instance are published, a transition made within a transaction is
+ * published once the transaction commits, so subscribers re-reading the status see it.
+ */
+@Service
+public class SyncStatusEventBus {
+
+	private final Sinks.Many<SyncDetailsTO> pcmSyncSink = Sinks.many().multicast().directBestEffort();
+
+	private final Sinks.Many<ElasticSyncDetailsTO> elasticSyncSink = Sinks.many().multicast().directBestEffort();
+
+	public void publish(SyncDetailsTO syncDetails) {
+		afterCommit(() -> emit(pcmSyncSink, syncDetails));
+	}
+
+	public void publish(ElasticSyncDetailsTO syncDetails) {
+		afterCommit(() -> emit(elasticSyncSink, syncDetails));
+	}
+
+	private synchronized <T> void emit(Sinks.Many<T> sink, T syncDetails) {
+		// no subscriber is not an error
+		sink.tryEmitNext(syncDetails);
+	}
+
+	private void afterCommit(Runnable publisher) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			publisher.run();
+			return;
+		}
+
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				publisher.run();
+			}
+		});
+	}
+
+	public Flux<SyncDetailsTO> pcmSyncEvents(Collection<Integer> projectConnectorIds) {
+		Set<Integer> pcmIds = Set.copyOf(projectConnectorIds);
+		return pcmSyncSink.asFlux().filter(syncDetails -> pcmIds.contains(syncDetails.getProjectConnectorId()));
+	}
+
+	public Flux<ElasticSyncDetailsTO> elasticSyncEvents(Collection<Integer> projectIds) {
+		Set<Integer> ids = Set.copyOf(projectIds);
+		return elasticSyncSink.asFlux().filter(syncDetails -> ids.contains(syncDetails.getProjectId()));
+	}
+}
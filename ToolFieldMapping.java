@@ -0,0 +1,27 @@
+package com.lti.knowledge.service.impl;
+
+import java.util.List;
+import java.util.Map;
+
+import com.lti.knowledge.to.FieldMappingMstTO;
+
+/**
+ * Field mapping master of a tool, as held by the {@link FieldMappingCatalog}
+ *
+ * @param fields field mapping master of the tool, in the master order, the position of a field is its slot
+ * @param slotMap (dataCategoryId, key) -> slot of the field
+ */
+record ToolFieldMapping(int toolId, List<FieldMappingMstTO> fields, Map<FieldMappingKey, Integer> slotMap) {
+
+	/**
+	 * @return slot of the field, -1 if the tool has no such field
+	 */
+	int slot(int dataCategoryId, String key) {
+		return slotMap.getOrDefault(new FieldMappingKey(dataCategoryId, key), -1);
+	}
+
+	FieldMappingMstTO find(int dataCategoryId, String key) {
+		int slot = slot(dataCategoryId, key);
+		return slot < 0 ? null : fields.get(slot);
+	}
+}
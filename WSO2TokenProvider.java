@@ -0,0 +1,136 @@
+package com.lti.knowledge.service.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+
+import com.lti.common.config.WSO2Config;
+import com.lti.common.constants.PathConstants;
+import com.lti.common.exception.CustomException;
+import com.lti.knowledge.util.StoryUtils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Shared WSO2 access token holder.
+ *
+ * <li>Token is cached and refreshed shortly before it expires
+ * <li>Only one caller refreshes at a time, others wait for the refreshed token
+ * <li>A call rejected with 401 invalidates the token and is retried once
+ */
+@Service
+public class WSO2TokenProvider {
+
+	private static final Logger logger = LoggerFactory.getLogger(WSO2TokenProvider.class);
+
+	@Autowired
+	private WSO2Config wso2Config;
+
+	@Autowired
+	private RestTemplate wso2RestTemplate;
+
+	@Value("${wso2.token.ttl-seconds:3000}")
+	private long tokenTtlSeconds;
+
+	@Value("${wso2.token.refresh-before-expiry-seconds:60}")
+	private long refreshBeforeExpirySeconds;
+
+	private final ReentrantLock refreshLock = new ReentrantLock();
+
+	private volatile CachedToken cachedToken = null;
+
+	private final Counter hitCounter;
+	private final Counter missCounter;
+	private final Counter refreshCounter;
+	private final Counter unauthorizedCounter;
+
+	public WSO2TokenProvider(MeterRegistry meterRegistry) {
+		hitCounter = meterRegistry.counter("wso2.token.cache", "result", "hit");
+		missCounter = meterRegistry.counter("wso2.token.cache", "result", "miss");
+		refreshCounter = meterRegistry.counter("wso2.token.refresh");
+		unauthorizedCounter = meterRegistry.counter("wso2.token.unauthorized");
+	}
+
+	@FunctionalInterface
+	public interface WSO2Call<T> {
+		T execute(String token) throws CustomException;
+	}
+
+	/**
+	 * Runs the WSO2 call with the cached token, retrying once with a fresh token if WSO2 responds with 401
+	 */
+	public <T> T execute(WSO2Call<T> call) throws CustomException {
+		String token = getToken();
+		try {
+			return call.execute(token);
+		} catch (HttpStatusCodeException e) {
+			if (!HttpStatus.UNAUTHORIZED.equals(e.getStatusCode()))
+				throw e;
+		} catch (CustomException e) {
+			if (!HttpStatus.UNAUTHORIZED.equals(e.getHttpStatus()))
+				throw e;
+		}
+
+		logger.info("WSO2 - Token rejected with 401, retrying with a new token");
+		unauthorizedCounter.increment();
+		invalidate(token);
+		return call.execute(getToken());
+	}
+
+	public String getToken() throws CustomException {
+		CachedToken current = cachedToken;
+		if (current != null && !current.isDueForRefresh()) {
+			hitCounter.increment();
+			return current.token();
+		}
+
+		missCounter.increment();
+		refreshLock.lock();
+		try {
+			// another caller may have refreshed while this one was waiting
+			current = cachedToken;
+			if (current != null && !current.isDueForRefresh()) {
+				return current.token();
+			}
+
+			logger.debug("WSO2 - Generating new access token");
+			String authUrl = wso2Config.url() + PathConstants.AUTHENTICATION;
+			String token = StoryUtils.generateToken(authUrl, wso2RestTemplate, wso2Config.basicAuth(),
+				wso2Config.apiKey());
+			refreshCounter.increment();
+
+			long now = System.nanoTime();
+			cachedToken = new CachedToken(token,
+				now + TimeUnit.SECONDS.toNanos(Math.max(0, tokenTtlSeconds - refreshBeforeExpirySeconds)));
+			return token;
+		} finally {
+			refreshLock.unlock();
+		}
+	}
+
+	/**
+	 * Drops the cached token, unless it has already been replaced by a newer one
+	 */
+	public void invalidate(String token) {
+		CachedToken current = cachedToken;
+		if (current != null && current.token().equals(token)) {
+			cachedToken = null;
+		}
+	}
+}
+
+record CachedToken(String token, long refreshAtNanos) {
+
+	boolean isDueForRefresh() {
+		return System.nanoTime() - refreshAtNanos >= 0;
+	}
+}